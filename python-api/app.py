@@ -25,6 +25,13 @@ except Exception as e:
     logging.error(f"Error loading YOLOv8 model: {e}")
     model = None
 
+# 탐지 결과 하나에서 사람 수 계산 (COCO 기준 class 0 = 'person')
+def count_persons(result):
+    if result.boxes is None:
+        return 0
+    # result.boxes.cls는 탐지된 객체의 클래스 ID 텐서
+    return int(torch.sum(result.boxes.cls.to(torch.int) == 0).item())
+
 # 인원 수 분석 API 엔드포인트
 @app.route('/analyze_crowd', methods=['POST'])
 def analyze_crowd():
@@ -51,12 +58,8 @@ def analyze_crowd():
         # YOLO 모델을 이용한 객체 탐지 수행
         results = model(image)
         
-        # 탐지된 사람 수 계산 (COCO 기준 class 0 = 'person')
-        person_count = 0
-        for result in results:
-            if result.boxes is not None:
-                # result.boxes.cls는 탐지된 객체의 클래스 ID 텐서
-                person_count += torch.sum(result.boxes.cls.to(torch.int) == 0).item()
+        # 탐지된 사람 수 계산
+        person_count = sum(count_persons(result) for result in results)
             
         logging.info(f"Image analyzed, detected {person_count} people.")
 
@@ -68,6 +71,44 @@ def analyze_crowd():
         logging.error(f"Error during crowd analysis: {e}")
         return jsonify({"error": str(e)}), 500
 
+# 인원 수 배치 분석 API 엔드포인트
+# multipart/form-data 요청의 파트 이름을 CCTV ID로 사용하고, JPEG 원본을 그대로 받아 한 번에 추론
+@app.route('/analyze_crowd_batch', methods=['POST'])
+def analyze_crowd_batch():
+    # 모델이 로드되지 않은 경우 에러 반환
+    if model is None:
+        return jsonify({"error": "Model not loaded"}), 500
+
+    if not request.files:
+        return jsonify({"error": "No image data provided"}), 400
+
+    try:
+        # 파트별 이미지 디코딩 (실패한 이미지는 errors에 기록하고 나머지는 계속 처리)
+        ids, images, errors = [], [], {}
+        for cctv_id, file in request.files.items(multi=True):
+            nparr = np.frombuffer(file.read(), np.uint8)
+            image = cv2.imdecode(nparr, cv2.IMREAD_COLOR)
+            if image is None:
+                errors[cctv_id] = "Could not decode image"
+                continue
+            ids.append(cctv_id)
+            images.append(image)
+
+        # 이미지 목록을 한 번에 모델에 넣어 배치 추론 (결과는 입력 순서와 같음)
+        results = model(images) if images else []
+        counts = {cctv_id: {"person_count": count_persons(result)} for cctv_id, result in zip(ids, results)}
+
+        summary = {cctv_id: c["person_count"] for cctv_id, c in counts.items()}
+        logging.info(f"Batch analyzed {len(images)} images ({len(errors)} failed): {summary}")
+
+        # CCTV ID별 결과 반환
+        return jsonify({"results": counts, "errors": errors})
+
+    except Exception as e:
+        # 분석 과정에서 예외 발생 시 에러 메시지 반환
+        logging.error(f"Error during batch crowd analysis: {e}")
+        return jsonify({"error": str(e)}), 500
+
 if __name__ == '__main__':
     # 실행 환경 확인 (GPU/CPU)
     if torch.cuda.is_available():
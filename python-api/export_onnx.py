@@ -0,0 +1,19 @@
+# backend/python-api/export_onnx.py
+# app.py와 같은 YOLOv8 가중치를 ONNX로 내보내기 (Spring 서버의 cctv.inference.backend=onnx 용)
+# 사용법: python export_onnx.py [출력 디렉터리]  → <출력 디렉터리>/best_m.onnx
+import os
+import shutil
+import sys
+
+from ultralytics import YOLO
+
+weight_path = os.path.join(os.path.dirname(__file__), "weights", "best_m.pt")
+out_dir = sys.argv[1] if len(sys.argv) > 1 else os.path.join(os.path.dirname(__file__), "..", "models")
+
+# 입력 640x640 고정, NMS는 JVM 쪽에서 수행 (출력 [1, 4 + 클래스 수, 후보 수])
+exported = YOLO(weight_path).export(format="onnx", imgsz=640, dynamic=False, simplify=True, opset=17)
+
+os.makedirs(out_dir, exist_ok=True)
+target = os.path.join(out_dir, "best_m.onnx")
+shutil.move(exported, target)
+print(f"exported {target}")
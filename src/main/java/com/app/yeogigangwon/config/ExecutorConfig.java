@@ -0,0 +1,100 @@
+package com.app.yeogigangwon.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+// ExecutorConfig: 백그라운드 작업용 스레드 풀 설정
+@Configuration
+public class ExecutorConfig {
+
+    // 날씨 캐시 백그라운드 갱신용 (요청 스레드가 기상청 응답을 기다리지 않도록 분리)
+    @Bean
+    public ThreadPoolTaskExecutor weatherRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("weather-refresh-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // CCTV 분석 주기 실행용 (주기 하나가 최대 카메라 제한 시간만큼 걸리므로 @Scheduled 단일 스레드에서 분리,
+    // 한 번에 한 주기만 실행하고 이전 주기가 돌고 있으면 새 주기는 거부)
+    @Bean
+    public ThreadPoolTaskExecutor cctvCycleExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("cctv-cycle-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // CCTV 파이프라인 1단계: 이미지 수집 (네트워크 대기 위주라 카메라 수만큼 넉넉히)
+    @Bean
+    public ThreadPoolTaskExecutor cctvFetchExecutor() {
+        return cctvStageExecutor(8, "cctv-fetch-");
+    }
+
+    // CCTV 파이프라인 2단계: 전처리 (CPU 작업이라 코어 수 이내)
+    @Bean
+    public ThreadPoolTaskExecutor cctvPreprocessExecutor() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return cctvStageExecutor(Math.max(1, Math.min(4, cores)), "cctv-prep-");
+    }
+
+    // CCTV 파이프라인 3단계: Python 추론 요청 (추론 서버가 감당할 수 있는 동시 요청 수)
+    @Bean
+    public ThreadPoolTaskExecutor cctvInferExecutor() {
+        return cctvStageExecutor(4, "cctv-infer-");
+    }
+
+    // CCTV 파이프라인 4단계: DB 저장
+    @Bean
+    public ThreadPoolTaskExecutor cctvPersistExecutor() {
+        return cctvStageExecutor(2, "cctv-persist-");
+    }
+
+    // 혼잡도 SSE 전송용 (구독자별 큐를 비우는 작업, 느린 클라이언트가 발행 스레드를 막지 않도록 분리)
+    @Bean
+    public ThreadPoolTaskExecutor congestionStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("congestion-sse-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // YOLO 배치 수집 큐 처리용 (해변별 대기 관측을 실시간 상태에 반영, 해변당 한 작업만 대기하므로 큐는 해변 수 수준)
+    @Bean
+    public ThreadPoolTaskExecutor congestionIngestExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("congestion-ingest-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // 단계별 고정 크기 풀 (큐가 차면 이전 단계 스레드가 직접 실행해 자연스럽게 속도를 맞춤)
+    private ThreadPoolTaskExecutor cctvStageExecutor(int threads, String prefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix(prefix);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
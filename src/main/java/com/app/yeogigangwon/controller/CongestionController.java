@@ -6,23 +6,45 @@
 package com.app.yeogigangwon.controller;
 
 import com.app.yeogigangwon.dto.CongestionDto;
-import com.app.yeogigangwon.service.CongestionService;
+import com.app.yeogigangwon.service.CaptureIntervalPlanner;
+import com.app.yeogigangwon.service.CctvFrameCache;
+import com.app.yeogigangwon.service.CongestionIngestQueue;
+import com.app.yeogigangwon.service.CongestionLeaderboardService;
+import com.app.yeogigangwon.service.CongestionStreamService;
+import com.app.yeogigangwon.service.CrowdRollupService;
+import com.app.yeogigangwon.service.CrowdStatusSnapshotService;
 import com.app.yeogigangwon.service.RealTimeCongestionService;
 import com.app.yeogigangwon.service.AreaMapService;
 import com.app.yeogigangwon.service.KtoService;
 import com.app.yeogigangwon.service.KtoDataUpdateService;
+import com.app.yeogigangwon.util.EtagMatcher;
 
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 // 혼잡도 관련 API 요청을 처리하는 컨트롤러
 @RestController
@@ -30,17 +52,116 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CongestionController {
 
-    private final CongestionService congestionService;                 // 종합 혼잡도
+    private final CrowdStatusSnapshotService crowdStatusSnapshotService; // 종합 혼잡도 (직렬화된 스냅샷)
+    private final CongestionStreamService congestionStreamService;     // 혼잡도 변경 SSE 스트림
+    private final CrowdRollupService crowdRollupService;               // 혼잡도 이력 (원본/시간/일 집계)
+    private final CongestionLeaderboardService congestionLeaderboardService; // 한산한 해변 순위
+    private final CctvFrameCache cctvFrameCache;                       // cctv 최신 프레임 썸네일
+    private final CaptureIntervalPlanner captureIntervalPlanner;       // cctv 카메라별 분석 시각
     private final RealTimeCongestionService realTimeCongestionService; // 실시간 혼잡도(yolo)
+    private final CongestionIngestQueue congestionIngestQueue;         // 실시간 혼잡도(yolo) 배치 수집 큐
     private final AreaMapService areaMapService;                       // 해수욕장 면적
     private final KtoService ktoService;                               // 한국관광공사(KTO) 데이터 서비스
     private final KtoDataUpdateService ktoDataUpdateService;           // KTO 데이터 수동/디버그
 
-    // cctv 제공 해수욕장 현재 혼잡도 상태 조회
+    // cctv 제공 해수욕장 현재 혼잡도 상태 조회 (분석 주기마다 미리 직렬화해 둔 JSON을 그대로 응답)
     @GetMapping("/status")
-    public ResponseEntity<List<CongestionDto.CrowdStatus>> getCrowdStatus() {
-        List<CongestionDto.CrowdStatus> statuses = congestionService.getCrowdStatus();
-        return ResponseEntity.ok(statuses);
+    public ResponseEntity<byte[]> getCrowdStatus(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        CrowdStatusSnapshotService.Snapshot snapshot = crowdStatusSnapshotService.getSnapshot();
+        // 다음 분석 주기(또는 정보없음 전환)까지 캐시 허용
+        CacheControl cacheControl = CacheControl
+                .maxAge(snapshot.maxAgeSeconds(LocalDateTime.now(KST)), TimeUnit.SECONDS)
+                .cachePublic();
+
+        if (EtagMatcher.matches(ifNoneMatch, snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.etag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.json());
+    }
+
+    // 지금 한산한 해변 순위 (source=cctv: 기준 혼잡 레벨, realtime: yolo 혼잡도 EMA / region=강릉시 등 시/군)
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<CongestionDto.LeaderboardEntry>> getLeaderboard(
+            @RequestParam(defaultValue = "cctv") String source,
+            @RequestParam(required = false) String region,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (limit < 1 || limit > MAX_LEADERBOARD_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<CongestionDto.LeaderboardEntry> ranking = congestionLeaderboardService.top(
+                source.trim().toLowerCase(), region == null || region.isBlank() ? null : region.trim(), limit);
+        if (ranking == null) {
+            // 모르는 출처
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ranking);
+    }
+
+    // cctv 최신 프레임 썸네일 (카메라 서버 대신 분석 주기마다 받아 둔 프레임, size=small|medium)
+    @GetMapping("/cctv/{cctvId}/thumbnail")
+    public ResponseEntity<byte[]> getCctvThumbnail(
+            @PathVariable String cctvId,
+            @RequestParam(defaultValue = "small") String size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        Optional<CctvFrameCache.Size> thumbnailSize = CctvFrameCache.Size.parse(size);
+        if (thumbnailSize.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<CctvFrameCache.Thumbnail> cached = cctvFrameCache.get(cctvId, thumbnailSize.get());
+        if (cached.isEmpty()) {
+            // 모르는 카메라이거나 아직 받은 프레임이 없음
+            return ResponseEntity.notFound().build();
+        }
+        CctvFrameCache.Thumbnail thumbnail = cached.get();
+
+        // 이 카메라의 다음 분석 시각까지 캐시 허용
+        LocalDateTime now = LocalDateTime.now(KST);
+        long maxAge = Math.max(0, Duration.between(now, captureIntervalPlanner.nextDueAt(cctvId, now)).getSeconds());
+        CacheControl cacheControl = CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic();
+        long lastModified = thumbnail.capturedAt().atZone(KST).toInstant().toEpochMilli();
+
+        if (EtagMatcher.matches(ifNoneMatch, thumbnail.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(thumbnail.etag())
+                    .cacheControl(cacheControl)
+                    .lastModified(lastModified)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(thumbnail.etag())
+                .cacheControl(cacheControl)
+                .lastModified(lastModified)
+                .contentType(MediaType.IMAGE_JPEG)
+                .body(thumbnail.jpeg());
+    }
+
+    // 혼잡도 변경 스트림 구독 (SSE, beachId를 주면 해당 해변만: ?beachId=a&beachId=b 또는 ?beachId=a,b)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCongestion(@RequestParam(value = "beachId", required = false) List<String> beachIds) {
+        Set<String> filter = beachIds == null ? Set.of() : beachIds.stream()
+                .flatMap(v -> Arrays.stream(v.split(",")))
+                .map(String::trim)
+                .filter(v -> !v.isEmpty())
+                .collect(Collectors.toSet());
+        SseEmitter emitter = congestionStreamService.subscribe(filter);
+        if (emitter == null) {
+            // 동시 구독자 한도 초과
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // nginx 프록시 버퍼링 끄기
+                .body(emitter);
     }
 
     // yolo 실시간 혼잡도 갱신
@@ -49,40 +170,101 @@ public class CongestionController {
             @PathVariable String beachId,
             @RequestBody UpdateReq req
     ) {
+        OptionalDouble area = areaMapService.findSandAreaM2(beachId);
+        if (area.isEmpty()) {
+            // 면적 정보가 없는 해변은 밀도를 계산할 수 없음
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("beach_id", beachId, "error", "unknown beach"));
+        }
         RealTimeCongestionService.State st =
                 realTimeCongestionService.update(beachId, req.getPersons(), req.getRoiRatio());
 
         double effArea = Math.max(
-                areaMapService.getSandAreaM2(beachId) * (req.getRoiRatio() == null ? 1.0 : req.getRoiRatio()),
+                area.getAsDouble() * (req.getRoiRatio() == null ? 1.0 : req.getRoiRatio()),
                 1e-6
         );
         double density = req.getPersons() / effArea;
 
         return ResponseEntity.ok(Map.of(
                 "beach_id", beachId,
-                "level", st.level,
+                "level", st.level(),
                 "persons", req.getPersons(),
                 "density_per_m2", round(density, 4),
                 "density_per_100m2", round(density * 100, 2),
-                "ema_density_per_m2", round(st.emaDensity, 4),
+                "ema_density_per_m2", round(st.emaDensity(), 4),
                 "method", "yolo_area"
         ));
     }
 
+    // yolo 관측 배치 수집 (여러 해변/프레임을 한 요청으로, 큐에 넣고 202 응답 → 해변별로 시각 순서대로 반영)
+    @PostMapping("/samples")
+    public ResponseEntity<Map<String, Object>> ingestSamples(@RequestBody BatchUpdateReq req) {
+        if (req.getSamples() == null || req.getSamples().isEmpty() || req.getSamples().size() > MAX_BATCH_SAMPLES) {
+            return ResponseEntity.badRequest().build();
+        }
+        long nowMs = System.currentTimeMillis();
+        List<CongestionIngestQueue.Sample> samples = new ArrayList<>(req.getSamples().size());
+        int invalid = 0;
+        for (SampleReq s : req.getSamples()) {
+            if (s.getBeachId() == null || s.getBeachId().isBlank() || s.getPersons() < 0
+                    || areaMapService.findSandAreaM2(s.getBeachId()).isEmpty()) {
+                invalid++;
+                continue;
+            }
+            // 관측 시각이 없거나 서버 시각보다 미래면 서버 시각 사용
+            long capturedAt = s.getCapturedAt() == null ? nowMs : Math.min(nowMs, s.getCapturedAt().toEpochMilli());
+            samples.add(new CongestionIngestQueue.Sample(s.getBeachId(), s.getPersons(), s.getRoiRatio(), capturedAt));
+        }
+
+        CongestionIngestQueue.Admission admission = congestionIngestQueue.offer(samples);
+        // 전부 거부되면 429, 일부라도 받으면 202 (대기 수/한도 헤더로 전송 속도 조절 유도)
+        HttpStatus status = admission.accepted() == 0 && admission.rejected() > 0
+                ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.ACCEPTED;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .header("X-Ingest-Queue-Depth", String.valueOf(admission.depth()))
+                .header("X-Ingest-Queue-Capacity", String.valueOf(admission.capacity()));
+        if (admission.rejected() > 0 || admission.depth() >= admission.capacity() * 0.8) {
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return response.body(Map.of(
+                "accepted", admission.accepted(),
+                "rejected", admission.rejected(),
+                "invalid", invalid,
+                "queue_depth", admission.depth()
+        ));
+    }
+
     @GetMapping("/beach/{beachId}")
     public ResponseEntity<Map<String, Object>> getBeach(@PathVariable String beachId) {
+        OptionalDouble area = areaMapService.findSandAreaM2(beachId);
+        if (area.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("beach_id", beachId, "error", "unknown beach"));
+        }
         RealTimeCongestionService.State st = realTimeCongestionService.get(beachId);
-        double area = areaMapService.getSandAreaM2(beachId);
 
         return ResponseEntity.ok(Map.of(
                 "beach_id", beachId,
-                "level", st.level,
-                "ema_density_per_m2", round(st.emaDensity, 4),
-                "area_m2", area,
+                "level", st.level(),
+                "ema_density_per_m2", round(st.emaDensity(), 4),
+                "area_m2", area.getAsDouble(),
                 "method", "yolo_area"
         ));
     }
 
+    // cctv 해수욕장 혼잡도 이력 조회 (범위에 따라 원본/시간/일 단위 자동 선택, 기본: 최근 24시간)
+    @GetMapping("/beach/{beachId}/history")
+    public ResponseEntity<CongestionDto.CrowdHistory> getBeachHistory(
+            @PathVariable String beachId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        LocalDateTime end = (to == null) ? LocalDateTime.now(KST) : to;
+        LocalDateTime start = (from == null) ? end.minusDays(1) : from;
+        if (!start.isBefore(end) || start.isBefore(end.minusDays(MAX_HISTORY_DAYS))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(crowdRollupService.getHistory(beachId, start, end));
+    }
+
     // KTO 기반 특정 관광지 예측 혼잡도 조회 (기존)
     @GetMapping("/place/{key}")
     public ResponseEntity<Map<String, Object>> getPlaceByKto(
@@ -156,6 +338,31 @@ public class CongestionController {
         private Double roiRatio; // null이면 1.0
     }
 
+    @Data
+    public static class BatchUpdateReq {
+        private List<SampleReq> samples;
+    }
+
+    @Data
+    public static class SampleReq {
+        private String beachId;
+        private int persons;
+        private Double roiRatio;   // null이면 1.0
+        private Instant capturedAt; // 관측 시각 (ISO-8601, null이면 수신 시각)
+    }
+
+    // 배치 수집 요청 한 번의 최대 관측 수
+    private static final int MAX_BATCH_SAMPLES = 1000;
+
+    // 대한민국 표준시 타임존 상수
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    // 이력 조회 최대 범위 (일)
+    private static final int MAX_HISTORY_DAYS = 366;
+
+    // 순위 조회 최대 개수
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+
     private static String ktoToLevel(double rate) {
         if (Double.isNaN(rate)) return "예측없음";
         if (rate < 34) return "여유";
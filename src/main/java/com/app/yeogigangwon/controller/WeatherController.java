@@ -1,11 +1,15 @@
 package com.app.yeogigangwon.controller;
 
-import com.app.yeogigangwon.domain.WeatherForecast;
 import com.app.yeogigangwon.dto.WeatherInfo;
 import com.app.yeogigangwon.dto.WeatherSummary;
+import com.app.yeogigangwon.service.WeatherRasterService;
 import com.app.yeogigangwon.service.WeatherService;
+import com.app.yeogigangwon.util.EtagMatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 public class WeatherController {
 
     private final WeatherService weatherService;
+    private final WeatherRasterService weatherRasterService;
 
     /**
      * 실시간 날씨 요약 정보 조회
@@ -53,8 +58,8 @@ public class WeatherController {
     ) {
         log.info("날씨 데이터 저장 요청 - 위도: {}, 경도: {}", lat, lon);
         
-        WeatherForecast saved = weatherService.fetchAndSave(lat, lon);
-        return ResponseEntity.ok("저장 완료: " + saved.getId());
+        int saved = weatherService.fetchAndSave(lat, lon);
+        return ResponseEntity.ok("저장 완료: 예보 " + saved + "개 시간대");
     }
 
     /**
@@ -79,4 +84,49 @@ public class WeatherController {
         
         return ResponseEntity.ok(info);
     }
+
+    /**
+     * 강원도 전체 격자의 예보를 압축 바이너리 래스터로 조회
+     * 형식은 WeatherRasterService 참고, Accept-Encoding에 gzip이 있으면 압축본을 내려줌
+     * 값은 백그라운드 갱신 대상 격자(관광지/CCTV 해변이 있는 격자)에만 있음 → 헤더의 filledCells 참고
+     *
+     * @param hour 현재 정시 기준 몇 시간 뒤 예보인지 (기본 0 = 현재)
+     * @param acceptEncoding 클라이언트가 받을 수 있는 압축 방식
+     * @param ifNoneMatch 클라이언트가 가진 래스터의 ETag
+     * @return 래스터 바이트 (변경 없으면 304 Not Modified)
+     */
+    @GetMapping("/weather/raster")
+    public ResponseEntity<byte[]> getWeatherRaster(
+            @RequestParam(defaultValue = "0") int hour,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        if (hour < 0 || hour > WeatherRasterService.MAX_HOUR_OFFSET) {
+            log.warn("날씨 래스터 조회 범위 초과 - hour: {}", hour);
+            return ResponseEntity.badRequest().build();
+        }
+
+        WeatherRasterService.Raster raster = weatherRasterService.getRaster(hour);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        // 같은 내용이라도 압축 여부에 따라 바이트가 다르므로 ETag를 구분
+        String etag = gzip ? raster.etag().substring(0, raster.etag().length() - 1) + "-gz\"" : raster.etag();
+
+        if (EtagMatcher.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header("X-Forecast-Time", raster.fcstDateTime().toString());
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(gzip ? raster.gzip() : raster.raw());
+    }
 }
@@ -0,0 +1,28 @@
+package com.app.yeogigangwon.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "beaches")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+// beaches 테이블과 매핑되는 해변 메타데이터 (crowd_records.beach_id가 참조, 이름을 기록마다 반복 저장하지 않도록 분리)
+public class Beach {
+
+    @Id
+    @Column(length = 32)
+    private String id; // 해변 ID (CCTV ID, 예: "cctv001")
+
+    @Column(nullable = false, length = 100)
+    private String name; // 해변 이름
+
+    @Column(length = 50)
+    private String region; // 시/군
+}
@@ -9,7 +9,13 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "crowd_records")
+@Table(name = "crowd_records",
+        indexes = {
+                // 해변별 시간 범위 조회용
+                @Index(name = "idx_beach_timestamp", columnList = "beachId,timestamp"),
+                // 전체 해변 최근 기록 조회용 (인메모리 윈도우 복원)
+                @Index(name = "idx_timestamp", columnList = "timestamp")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,8 +28,12 @@ public class CongestionDomain {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id; // 기본 키(PK)
 
-    private String beachId; // 해변을 구분하기 위한 고유 ID
-    private String beachName; // 해변 이름
+    @Column(length = 32)
+    private String beachId; // 해변을 구분하기 위한 고유 ID (beaches.id, 이름은 beaches 테이블에서 관리)
     private int personCount; // 해당 시각에 YOLO 모델로 탐지된 사람 수
+    private Double roiRatio; // 분석한 영역 비율 (ROI 면적 / 전체 프레임, 도입 이전 기록은 null = 전체)
     private LocalDateTime timestamp; // 데이터가 기록된 시각
+
+    @Column(nullable = false, columnDefinition = "bit(1) default 0")
+    private boolean frameReused; // 프레임이 직전과 같아 추론 없이 직전 사람 수를 재사용했는지 여부
 }
\ No newline at end of file
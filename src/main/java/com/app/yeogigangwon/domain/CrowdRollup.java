@@ -0,0 +1,52 @@
+package com.app.yeogigangwon.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "crowd_rollups",
+        uniqueConstraints = {
+                // 해변 + 단위 + 구간 시작으로 유일, 해변별 구간 범위 조회에도 사용
+                @UniqueConstraint(name = "uk_beach_granularity_bucket", columnNames = {"beachId", "granularity", "bucketStart"})
+        },
+        indexes = {
+                @Index(name = "idx_granularity_bucket", columnList = "granularity,bucketStart")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+// crowd_rollups 테이블과 매핑되는 혼잡도 집계 (해변별 시간/일 단위 min/avg/max/p90)
+public class CrowdRollup {
+
+    /** 집계 단위 */
+    public enum Granularity { HOUR, DAY }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // 기본 키(PK)
+
+    @Column(nullable = false, length = 32)
+    private String beachId; // 해변 ID (beaches.id)
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity; // 집계 단위
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart; // 구간 시작 시각 (KST, 정시 또는 자정)
+
+    private int sampleCount; // 구간 안 기록 수
+    private int minCount; // 최소 사람 수
+    private int maxCount; // 최대 사람 수
+    private double avgCount; // 평균 사람 수
+    @Column(name = "p90_count")
+    private int p90Count; // 90 퍼센타일 사람 수
+    private LocalDateTime updatedAt; // 마지막 갱신 시각
+}
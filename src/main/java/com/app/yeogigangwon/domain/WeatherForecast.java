@@ -1,16 +1,24 @@
 package com.app.yeogigangwon.domain;
 
-import lombok.AllArgsConstructor;
+import com.app.yeogigangwon.dto.WeatherInfo;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 /**
- * 기상청 단기예보 데이터를 저장하는 MySQL 엔티티
+ * 기상청 단기예보 시간대별 데이터를 저장하는 MySQL 엔티티
+ * 한 행 = 한 격자의 한 발표(base) 기준 한 예보 시각(fcst)
  */
 @Entity
-@Table(name = "weather_forecasts")
+@Table(name = "weather_forecast_timeline",
+        uniqueConstraints = {
+                // 격자 + 예보 시각 + 발표 시각으로 유일, 격자별 시간 범위 조회에도 사용
+                @UniqueConstraint(name = "uk_grid_fcst_base", columnNames = {"nx", "ny", "fcstDateTime", "baseDateTime"})
+        },
+        indexes = {
+                @Index(name = "idx_fcst_date_time", columnList = "fcstDateTime")
+        })
 @Data
 @NoArgsConstructor
 public class WeatherForecast {
@@ -18,25 +26,39 @@ public class WeatherForecast {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    
-    @Column(nullable = false)
-    private String baseDate;    // 기준 날짜
-    
+
     @Column(nullable = false)
-    private String baseTime;    // 기준 시간
-    
+    private int nx;                      // 격자 X 좌표
+
     @Column(nullable = false)
-    private String nx;          // 격자 X 좌표
-    
+    private int ny;                      // 격자 Y 좌표
+
     @Column(nullable = false)
-    private String ny;          // 격자 Y 좌표
-    
+    private LocalDateTime baseDateTime;  // 발표 시각 (baseDate + baseTime)
+
     @Column(nullable = false)
-    private LocalDateTime forecastTime; // 예보 시간
-    
-    @Column(length = 1000)
-    private String weatherData; // 기상 데이터 (JSON 형태)
-    
+    private LocalDateTime fcstDateTime;  // 예보 대상 시각 (fcstDate + fcstTime)
+
+    private Integer tmp;                 // 기온 (°C)
+    private Integer pop;                 // 강수확률 (%)
+    private Integer sky;                 // 하늘 상태 (1:맑음, 3:구름많음, 4:흐림)
+    private Double wsd;                  // 풍속 (m/s)
+    private Integer pty;                 // 강수 형태 (0:없음, 1:비, 2:비/눈, 3:눈, 4:소나기)
+
     @Column(nullable = false)
-    private LocalDateTime createdAt; // 생성 시간
+    private LocalDateTime createdAt;     // 기상청에서 받아온 시각
+
+    /**
+     * 추천/요약에 쓰는 핵심 값이 모두 있는지 여부
+     */
+    public boolean hasWeatherInfo() {
+        return tmp != null && pop != null && sky != null && wsd != null;
+    }
+
+    /**
+     * WeatherInfo DTO로 변환 (hasWeatherInfo()가 true일 때만 호출)
+     */
+    public WeatherInfo toWeatherInfo() {
+        return new WeatherInfo(tmp, pop, sky, wsd.intValue());
+    }
 }
@@ -9,6 +9,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
 // 혼잡도 관련 DTO 모음 클래스
 public class CongestionDto {
 
@@ -24,6 +28,8 @@ public class CongestionDto {
         private String beachName; // CCTV가 설치된 해변 이름
         private String location; // 해변 위치
         private String cctvUrl; // CCTV 영상 접근 URL
+        private double latitude; // 해변 위도
+        private double longitude; // 해변 경도
     }
 
 
@@ -39,6 +45,18 @@ public class CongestionDto {
         private int personCount; // 분석된 사람 수 (JSON 키: person_count)
     }
 
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @ToString
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    // YOLO 배치 분석 결과 DTO (CCTV ID별 결과)
+    public static class BatchAnalysisResult {
+        private Map<String, CrowdAnalysisResult> results; // CCTV ID → 분석 결과
+        private Map<String, String> errors; // CCTV ID → 실패 사유 (디코딩 실패 등)
+    }
+
     @Getter
     @Setter
     @NoArgsConstructor
@@ -55,4 +73,52 @@ public class CongestionDto {
         @JsonInclude(JsonInclude.Include.NON_NULL)
         private Double referenceCrowdLevel; // 기준 혼잡 레벨 (혼잡도 비교 지표, 필요시만 포함됨)
     }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @ToString
+
+    // 혼잡도 이력 응답 DTO (차트 표시용)
+    public static class CrowdHistory {
+        private String beachId; // 해변 ID
+        private String resolution; // 구간 단위 ("RAW", "HOUR", "DAY")
+        private LocalDateTime from; // 요청 시작 시각
+        private LocalDateTime to; // 요청 종료 시각
+        private List<HistoryBucket> buckets; // 구간별 값 (시간 오름차순)
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @ToString
+
+    // 혼잡도 이력 구간 하나 (RAW면 기록 하나, min/avg/max/p90 모두 같은 값)
+    public static class HistoryBucket {
+        private LocalDateTime bucketStart; // 구간 시작 시각
+        private int sampleCount; // 구간 안 기록 수
+        private int min; // 최소 사람 수
+        private double avg; // 평균 사람 수
+        private int max; // 최대 사람 수
+        private int p90; // 90 퍼센타일 사람 수
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @ToString
+
+    // 혼잡도 순위 항목 (덜 붐비는 순, score 기준은 출처에 따라 다름)
+    public static class LeaderboardEntry {
+        private int rank; // 순위 (1부터)
+        private String beachId; // 해변 ID (cctv: CCTV ID, realtime: 해변 이름)
+        private String beachName; // 해변 이름
+        private String region; // 시/군 (모르면 null)
+        private String status; // 혼잡 상태 ("여유", "보통", "혼잡")
+        private double score; // 순위 기준 값 (cctv: 기준 혼잡 레벨 0~1, realtime: 혼잡도 EMA 명/㎡)
+        private LocalDateTime updatedAt; // 마지막 갱신 시각
+    }
 }
@@ -17,4 +17,11 @@ public class WeatherSummary {
     
     private WeatherInfo info;           // 단기 예보 정보
     private List<WeatherAlert> alerts; // 기상 특보 목록
+    private long dataAgeMinutes;        // 예보 데이터를 받아온 뒤 지난 시간 (분)
+    private boolean stale;              // 갱신 주기를 넘긴 데이터 여부 (갱신 실패 시 이전 데이터 제공)
+
+    public WeatherSummary(WeatherInfo info, List<WeatherAlert> alerts) {
+        this.info = info;
+        this.alerts = alerts;
+    }
 }
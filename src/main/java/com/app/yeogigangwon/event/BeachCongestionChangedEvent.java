@@ -0,0 +1,26 @@
+package com.app.yeogigangwon.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 해변 한 곳의 혼잡도가 바뀌었을 때 발행되는 이벤트
+ * 출처에 따라 채워지는 값이 다름 (cctv: personCount/referenceCrowdLevel, realtime: emaDensity)
+ *
+ * @param beachId             해변 ID
+ * @param source              변경 출처 ("cctv" = CCTV 분석 주기, "realtime" = YOLO 실시간 갱신)
+ * @param level               혼잡 상태 ("여유", "보통", "혼잡", "정보없음")
+ * @param personCount         감지된 사람 수 (없으면 null)
+ * @param emaDensity          혼잡도 지표(명/㎡)의 EMA 값 (없으면 null)
+ * @param referenceCrowdLevel 기준 혼잡 레벨 (없으면 null)
+ * @param changedAt           변경 시각
+ */
+public record BeachCongestionChangedEvent(
+        String beachId,
+        String source,
+        String level,
+        Integer personCount,
+        Double emaDensity,
+        Double referenceCrowdLevel,
+        LocalDateTime changedAt
+) {
+}
@@ -0,0 +1,17 @@
+package com.app.yeogigangwon.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * CCTV 혼잡도 분석 주기가 끝났을 때 발행되는 이벤트
+ *
+ * @param timestamp 이번 주기 기록 시각
+ * @param succeeded 저장에 성공한 카메라 수
+ * @param failed    실패한 카메라 수
+ */
+public record CrowdCycleCompletedEvent(
+        LocalDateTime timestamp,
+        long succeeded,
+        long failed
+) {
+}
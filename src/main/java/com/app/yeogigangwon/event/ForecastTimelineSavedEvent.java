@@ -0,0 +1,21 @@
+package com.app.yeogigangwon.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 한 격자의 예보 시간대가 DB에 저장되었을 때 발행되는 이벤트
+ *
+ * @param nx           격자 X 좌표
+ * @param ny           격자 Y 좌표
+ * @param baseDateTime 저장된 예보의 발표 시각
+ * @param rows         저장된 시간대 수
+ * @param savedAt      저장 시각
+ */
+public record ForecastTimelineSavedEvent(
+        int nx,
+        int ny,
+        LocalDateTime baseDateTime,
+        int rows,
+        LocalDateTime savedAt
+) {
+}
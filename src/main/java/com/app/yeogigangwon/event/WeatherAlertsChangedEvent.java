@@ -0,0 +1,22 @@
+package com.app.yeogigangwon.event;
+
+import com.app.yeogigangwon.dto.WeatherAlert;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 기상 특보 목록이 바뀌었을 때 발행되는 이벤트
+ *
+ * @param previous   이전 특보 목록 (불변)
+ * @param current    새 특보 목록 (불변)
+ * @param hash       새 특보 목록의 내용 해시
+ * @param detectedAt 변경 감지 시각
+ */
+public record WeatherAlertsChangedEvent(
+        List<WeatherAlert> previous,
+        List<WeatherAlert> current,
+        String hash,
+        LocalDateTime detectedAt
+) {
+}
@@ -0,0 +1,20 @@
+package com.app.yeogigangwon.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 날씨 갱신 주기(15분)에 예약한 격자 갱신이 모두 끝났을 때 발행되는 이벤트
+ * 다음 주기가 시작될 때까지 끝나지 못한 작업이 취소된 경우에도 그 시점에 한 번 발행
+ *
+ * @param startedAt   주기 시작 시각
+ * @param scheduled   예약한 격자 수
+ * @param failed      실패한 격자 수
+ * @param completedAt 완료 시각
+ */
+public record WeatherRefreshCompletedEvent(
+        LocalDateTime startedAt,
+        int scheduled,
+        int failed,
+        LocalDateTime completedAt
+) {
+}
@@ -38,89 +38,99 @@ public class AlertFetcher {
      * @return 기상 특보 목록 (API 실패 시 빈 목록 반환)
      */
     public List<WeatherAlert> fetchWeatherAlerts(String regionName) {
-        log.info("기상 특보 조회 시작 - 지역: {}", regionName);
-        
         try {
-            // API URL 구성
-            String url = buildApiUrl(regionName);
-            log.debug("API URL: {}", url.replace(apiKey, "***"));
-            
-            // API 호출 (JSON 문자열로 받기)
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            
-            // HTTP 상태 코드 확인
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("기상 특보 API 호출 성공 - 상태코드: {}", response.getStatusCode());
-                String responseBody = response.getBody();
-                log.debug("API 응답: {}", responseBody);
-                
-                // 응답 파싱
-                return parseWeatherAlertsResponse(responseBody);
-            } else {
-                log.error("기상 특보 API 호출 실패 - 상태코드: {}, 응답: {}", 
-                         response.getStatusCode(), response.getBody());
-                return new ArrayList<>(); // 빈 목록 반환
-            }
-            
+            return requestWeatherAlerts(regionName);
         } catch (Exception e) {
             log.error("기상 특보 조회 실패", e);
             return new ArrayList<>(); // 빈 목록 반환 (예외 발생 시)
         }
     }
 
+    /**
+     * 기상 특보 조회 (실패 시 예외 발생)
+     * 실패와 "특보 없음"을 구분해야 하는 호출부(특보 폴러)에서 사용
+     *
+     * @param regionName 지역명 (예: "강원도")
+     * @return 기상 특보 목록
+     * @throws RuntimeException API 호출 또는 응답 파싱 실패 시
+     */
+    public List<WeatherAlert> requestWeatherAlerts(String regionName) {
+        log.info("기상 특보 조회 시작 - 지역: {}", regionName);
+        
+        // API URL 구성
+        String url = buildApiUrl(regionName);
+        log.debug("API URL: {}", url.replace(apiKey, "***"));
+        
+        // API 호출 (JSON 문자열로 받기)
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+        
+        // HTTP 상태 코드 확인
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            log.error("기상 특보 API 호출 실패 - 상태코드: {}, 응답: {}", 
+                     response.getStatusCode(), response.getBody());
+            throw new IllegalStateException("기상 특보 API 호출 실패: " + response.getStatusCode());
+        }
+
+        log.info("기상 특보 API 호출 성공 - 상태코드: {}", response.getStatusCode());
+        String responseBody = response.getBody();
+        log.debug("API 응답: {}", responseBody);
+
+        // 응답 파싱
+        try {
+            return parseWeatherAlertsResponse(responseBody);
+        } catch (Exception e) {
+            log.error("기상 특보 응답 파싱 실패", e);
+            throw new IllegalStateException("기상 특보 응답 파싱 실패: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * API 응답을 파싱하여 기상 특보 목록으로 변환
      * 
      * @param responseBody API 응답 JSON 문자열
      * @return 기상 특보 목록
+     * @throws Exception JSON 파싱 실패 시
      */
-    private List<WeatherAlert> parseWeatherAlertsResponse(String responseBody) {
+    private List<WeatherAlert> parseWeatherAlertsResponse(String responseBody) throws Exception {
         List<WeatherAlert> result = new ArrayList<>();
 
-        try {
-            if (responseBody == null || responseBody.trim().isEmpty()) {
-                log.warn("API 응답이 비어있습니다");
-                return result; // 빈 목록 반환 (특보 없음)
-            }
-
-            // JSON 파싱
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, Object> response = objectMapper.readValue(responseBody, Map.class);
-
-            // 응답 구조 파싱
-            Map<String, Object> body = (Map<String, Object>) response.get("response");
-            if (body == null) {
-                log.warn("response.body가 없습니다");
-                return result; // 빈 목록 반환 (특보 없음)
-            }
-
-            Map<String, Object> items = (Map<String, Object>) body.get("items");
-            if (items == null) {
-                log.warn("response.body.items가 없습니다");
-                return result; // 빈 목록 반환 (특보 없음)
-            }
-
-            // item 데이터 추출
-            Object rawItems = items.get("item");
-            List<Map<String, Object>> itemList = parseItems(rawItems);
-
-            // WeatherAlert 객체로 변환
-            for (Map<String, Object> item : itemList) {
-                String title = (String) item.get("title");
-                String message = (String) item.get("msg");
-                String time = (String) item.get("tm");
-
-                WeatherAlert alert = new WeatherAlert(title, message, time);
-                result.add(alert);
-            }
-
-            log.info("기상 특보 {}건 조회 완료", result.size());
+        if (responseBody == null || responseBody.trim().isEmpty()) {
+            log.warn("API 응답이 비어있습니다");
+            return result; // 빈 목록 반환 (특보 없음)
+        }
 
-        } catch (Exception e) {
-            log.error("기상 특보 응답 파싱 실패", e);
-            // 파싱 실패 시 빈 목록 반환
+        // JSON 파싱
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Object> response = objectMapper.readValue(responseBody, Map.class);
+
+        // 응답 구조 파싱
+        Map<String, Object> body = (Map<String, Object>) response.get("response");
+        if (body == null) {
+            log.warn("response.body가 없습니다");
+            return result; // 빈 목록 반환 (특보 없음)
         }
-        
+
+        Map<String, Object> items = (Map<String, Object>) body.get("items");
+        if (items == null) {
+            log.warn("response.body.items가 없습니다");
+            return result; // 빈 목록 반환 (특보 없음)
+        }
+
+        // item 데이터 추출
+        Object rawItems = items.get("item");
+        List<Map<String, Object>> itemList = parseItems(rawItems);
+
+        // WeatherAlert 객체로 변환
+        for (Map<String, Object> item : itemList) {
+            String title = (String) item.get("title");
+            String message = (String) item.get("msg");
+            String time = (String) item.get("tm");
+
+            WeatherAlert alert = new WeatherAlert(title, message, time);
+            result.add(alert);
+        }
+
+        log.info("기상 특보 {}건 조회 완료", result.size());
         return result;
     }
     
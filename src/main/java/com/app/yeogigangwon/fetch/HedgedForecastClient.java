@@ -0,0 +1,219 @@
+package com.app.yeogigangwon.fetch;
+
+import com.app.yeogigangwon.util.LatencyTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 기상청 단기예보 API 호출 클라이언트 (요청 헤징 적용)
+ * 응답이 최근 p95보다 늦어지면 같은 요청을 한 번 더 보내 먼저 성공한 응답을 쓰고 나머지는 취소
+ * 추가 요청은 전체 요청 대비 비율(hedge budget)로 제한하고 메트릭으로 노출
+ */
+@Slf4j
+@Component
+public class HedgedForecastClient {
+
+    // p95 계산에 쓰는 최근 응답 수, 이보다 적게 쌓이면 기본 지연 사용
+    private static final int LATENCY_WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+    // 헤징 토큰 최대 누적치 (짧은 지연 폭주에 쓸 수 있는 여유분)
+    private static final double MAX_HEDGE_TOKENS = 5.0;
+
+    private final RestTemplate restTemplate;
+    private final ExecutorService executor;
+    private final LatencyTracker latencies = new LatencyTracker(LATENCY_WINDOW);
+
+    // 전체 요청 대비 허용하는 추가 요청 비율
+    private final double maxHedgeRatio;
+    // 헤징 지연 하한 / 표본이 부족할 때 쓰는 기본값 (밀리초)
+    private final long minHedgeDelayMillis;
+    private final long defaultHedgeDelayMillis;
+    // 한 번의 조회에 허용하는 전체 시간 (밀리초)
+    private final long totalTimeoutMillis;
+
+    private final Counter requestCounter;
+    private final Counter hedgeCounter;
+    private final Counter hedgeWinCounter;
+    private final Counter hedgeSkippedCounter;
+
+    // 요청마다 적립되고 헤징할 때 1씩 쓰는 토큰
+    private double hedgeTokens = MAX_HEDGE_TOKENS;
+
+    public HedgedForecastClient(
+            MeterRegistry meterRegistry,
+            @Value("${weather.hedge.max-ratio:0.1}") double maxHedgeRatio,
+            @Value("${weather.hedge.min-delay-ms:200}") long minHedgeDelayMillis,
+            @Value("${weather.hedge.default-delay-ms:1000}") long defaultHedgeDelayMillis,
+            @Value("${weather.hedge.total-timeout-ms:10000}") long totalTimeoutMillis,
+            @Value("${weather.api.connect-timeout-ms:3000}") long connectTimeoutMillis,
+            @Value("${weather.api.read-timeout-ms:8000}") long readTimeoutMillis) {
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.minHedgeDelayMillis = minHedgeDelayMillis;
+        this.defaultHedgeDelayMillis = defaultHedgeDelayMillis;
+        this.totalTimeoutMillis = totalTimeoutMillis;
+
+        // JDK HttpClient는 호출 스레드 인터럽트 시 진행 중인 요청을 취소하므로 패배한 요청을 실제로 끊을 수 있음
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        this.executor = Executors.newCachedThreadPool(new CustomizableThreadFactory("kma-forecast-"));
+
+        this.requestCounter = Counter.builder("kma.forecast.requests")
+                .description("기상청 단기예보 조회 수 (헤징 요청 제외)")
+                .register(meterRegistry);
+        this.hedgeCounter = Counter.builder("kma.forecast.hedges")
+                .description("p95 초과로 추가로 보낸 요청 수")
+                .register(meterRegistry);
+        this.hedgeWinCounter = Counter.builder("kma.forecast.hedge.wins")
+                .description("추가 요청이 먼저 성공한 횟수")
+                .register(meterRegistry);
+        this.hedgeSkippedCounter = Counter.builder("kma.forecast.hedge.skipped")
+                .description("헤징 한도 초과로 추가 요청을 보내지 않은 횟수")
+                .register(meterRegistry);
+        Gauge.builder("kma.forecast.hedge.ratio", this, HedgedForecastClient::hedgeRatio)
+                .description("전체 조회 대비 추가 요청 비율")
+                .register(meterRegistry);
+        Gauge.builder("kma.forecast.latency.p95", latencies, l -> l.percentile(95))
+                .description("최근 기상청 응답 시간 p95 (밀리초)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * GET 요청 (필요 시 헤징)
+     *
+     * @param uri 요청 URI
+     * @return 먼저 성공한 응답
+     * @throws RuntimeException 모든 요청이 실패했거나 전체 시간 초과 시
+     */
+    public ResponseEntity<String> get(URI uri) {
+        return execute(() -> restTemplate.getForEntity(uri, String.class));
+    }
+
+    private <T> T execute(Callable<T> call) {
+        requestCounter.increment();
+        depositHedgeToken();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMillis);
+        long hedgeDelay = hedgeDelayMillis();
+
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(2);
+        futures.add(completion.submit(timed(call)));
+
+        try {
+            Future<T> done = completion.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                if (tryAcquireHedgeToken()) {
+                    hedgeCounter.increment();
+                    log.debug("기상청 응답이 {}ms를 넘어 추가 요청 전송", hedgeDelay);
+                    futures.add(completion.submit(timed(call)));
+                } else {
+                    hedgeSkippedCounter.increment();
+                }
+            }
+
+            Exception lastError = null;
+            for (int pending = futures.size(); pending > 0; pending--) {
+                if (done == null) {
+                    long remaining = deadline - System.nanoTime();
+                    done = completion.poll(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        throw new TimeoutException("기상청 응답 시간 초과 (" + totalTimeoutMillis + "ms)");
+                    }
+                }
+                try {
+                    T result = done.get();
+                    if (futures.indexOf(done) > 0) {
+                        hedgeWinCounter.increment();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    lastError = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    done = null;
+                }
+            }
+            throw lastError;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("기상청 조회 대기 중 인터럽트", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } finally {
+            // 늦게 끝나는 쪽은 취소 (인터럽트로 HTTP 요청도 중단)
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /** 성공한 호출만 응답 시간을 기록하도록 감쌈 */
+    private <T> Callable<T> timed(Callable<T> call) {
+        return () -> {
+            long started = System.nanoTime();
+            T result = call.call();
+            latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return result;
+        };
+    }
+
+    /** 현재 헤징 지연 (최근 p95, 표본이 부족하면 기본값) */
+    private long hedgeDelayMillis() {
+        if (latencies.count() < MIN_SAMPLES) {
+            return defaultHedgeDelayMillis;
+        }
+        return Math.max(minHedgeDelayMillis, latencies.percentile(95));
+    }
+
+    private synchronized void depositHedgeToken() {
+        hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + maxHedgeRatio);
+    }
+
+    private synchronized boolean tryAcquireHedgeToken() {
+        if (hedgeTokens < 1.0) {
+            return false;
+        }
+        hedgeTokens -= 1.0;
+        return true;
+    }
+
+    private double hedgeRatio() {
+        double requests = requestCounter.count();
+        return requests == 0 ? 0.0 : hedgeCounter.count() / requests;
+    }
+}
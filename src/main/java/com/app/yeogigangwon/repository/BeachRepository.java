@@ -0,0 +1,10 @@
+package com.app.yeogigangwon.repository;
+
+import com.app.yeogigangwon.domain.Beach;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// 해변 메타데이터 기본 CRUD
+@Repository
+public interface BeachRepository extends JpaRepository<Beach, String> {
+}
@@ -2,14 +2,18 @@ package com.app.yeogigangwon.repository;
 
 import com.app.yeogigangwon.domain.CongestionDomain;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 // JpaRepository를 확장하여 기본 CRUD와 파생 쿼리를 제공
 @Repository
-public interface CongestionRepository extends JpaRepository<CongestionDomain, Long> { // Long 타입으로 변경
+public interface CongestionRepository extends JpaRepository<CongestionDomain, Long>, CongestionRepositoryCustom { // Long 타입으로 변경
 
     // 특정 해변(beachId)의 혼잡도 기록을 주어진 시간 범위(start~end)에서 조회,
     // timestamp 기준 오름차순(과거 -> 최신 순)으로 정렬하여 반환함
@@ -18,4 +22,16 @@ public interface CongestionRepository extends JpaRepository<CongestionDomain, Lo
     // 특정 해변(beachId)의 혼잡도 기록을 주어진 시간 범위(start~end)에서 조회,
     // timestamp 기준 내림차순(최신 -> 과거 순)으로 정렬하여 반환함
     List<CongestionDomain> findByBeachIdAndTimestampBetweenOrderByTimestampDesc(String beachId, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+    // 주어진 시각 이후의 모든 해변 혼잡도 기록을 timestamp 오름차순으로 조회 (인메모리 윈도우 복원용)
+    List<CongestionDomain> findByTimestampAfterOrderByTimestampAsc(LocalDateTime since);
+
+    // 주어진 시간 범위(start~end)의 모든 해변 혼잡도 기록을 timestamp 오름차순으로 조회 (집계 백필용, idx_timestamp 사용)
+    List<CongestionDomain> findByTimestampBetweenOrderByTimestampAsc(LocalDateTime start, LocalDateTime end);
+
+    // 보관 기간이 지난 원본 기록 삭제 (idx_timestamp 사용)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CongestionDomain c WHERE c.timestamp < :threshold")
+    int deleteByTimestampBefore(@Param("threshold") LocalDateTime threshold);
+}
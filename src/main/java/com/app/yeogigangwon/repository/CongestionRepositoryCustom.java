@@ -0,0 +1,19 @@
+package com.app.yeogigangwon.repository;
+
+import com.app.yeogigangwon.domain.CongestionDomain;
+
+import java.util.List;
+
+/**
+ * 혼잡도 기록 대량 저장용 커스텀 Repository
+ */
+public interface CongestionRepositoryCustom {
+
+    /**
+     * 혼잡도 기록 목록을 한 번의 JDBC 배치로 저장
+     *
+     * @param records 저장할 기록 목록
+     * @return 처리된 행 수
+     */
+    int insertAll(List<CongestionDomain> records);
+}
@@ -0,0 +1,43 @@
+package com.app.yeogigangwon.repository;
+
+import com.app.yeogigangwon.domain.CongestionDomain;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * CongestionRepositoryCustom 구현체
+ * IDENTITY 키 엔티티는 Hibernate 배치 insert가 안 되므로 JDBC 배치로 직접 저장
+ */
+@RequiredArgsConstructor
+public class CongestionRepositoryImpl implements CongestionRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO crowd_records (beach_id, person_count, roi_ratio, timestamp, frame_reused) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertAll(List<CongestionDomain> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, r) -> {
+            ps.setString(1, r.getBeachId());
+            ps.setInt(2, r.getPersonCount());
+            ps.setObject(3, r.getRoiRatio(), Types.DOUBLE);
+            ps.setTimestamp(4, Timestamp.valueOf(r.getTimestamp()));
+            ps.setBoolean(5, r.isFrameReused());
+        });
+
+        int processed = 0;
+        for (int[] batch : results) {
+            processed += batch.length;
+        }
+        return processed;
+    }
+}
@@ -0,0 +1,38 @@
+package com.app.yeogigangwon.repository;
+
+import com.app.yeogigangwon.domain.CrowdRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// 혼잡도 집계 조회/삭제
+@Repository
+public interface CrowdRollupRepository extends JpaRepository<CrowdRollup, Long>, CrowdRollupRepositoryCustom {
+
+    /**
+     * 해변의 특정 단위 집계를 구간 시작 기준 오름차순으로 조회 (uk_beach_granularity_bucket 사용)
+     */
+    List<CrowdRollup> findByBeachIdAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+            String beachId, CrowdRollup.Granularity granularity, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 특정 단위에서 가장 이른 집계 구간 (idx_granularity_bucket 사용)
+     */
+    Optional<CrowdRollup> findFirstByGranularityOrderByBucketStartAsc(CrowdRollup.Granularity granularity);
+
+    /**
+     * 보관 기간이 지난 집계 삭제 (idx_granularity_bucket 사용)
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CrowdRollup r WHERE r.granularity = :granularity AND r.bucketStart < :threshold")
+    int deleteByGranularityAndBucketStartBefore(@Param("granularity") CrowdRollup.Granularity granularity,
+                                                @Param("threshold") LocalDateTime threshold);
+}
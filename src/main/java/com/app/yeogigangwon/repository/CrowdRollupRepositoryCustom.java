@@ -0,0 +1,20 @@
+package com.app.yeogigangwon.repository;
+
+import com.app.yeogigangwon.domain.CrowdRollup;
+
+import java.util.List;
+
+/**
+ * 혼잡도 집계 대량 저장용 커스텀 Repository
+ */
+public interface CrowdRollupRepositoryCustom {
+
+    /**
+     * 집계 목록을 한 번의 JDBC 배치로 저장
+     * 같은 (해변, 단위, 구간 시작)이 이미 있으면 값만 갱신
+     *
+     * @param rollups 저장할 집계 목록
+     * @return 처리된 행 수
+     */
+    int upsertAll(List<CrowdRollup> rollups);
+}
@@ -0,0 +1,50 @@
+package com.app.yeogigangwon.repository;
+
+import com.app.yeogigangwon.domain.CrowdRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * CrowdRollupRepositoryCustom 구현체
+ * 구간마다 한 행을 계속 덮어쓰므로 JDBC 배치 upsert로 저장
+ */
+@RequiredArgsConstructor
+public class CrowdRollupRepositoryImpl implements CrowdRollupRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO crowd_rollups " +
+            "(beach_id, granularity, bucket_start, sample_count, min_count, max_count, avg_count, p90_count, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "sample_count = VALUES(sample_count), min_count = VALUES(min_count), max_count = VALUES(max_count), " +
+            "avg_count = VALUES(avg_count), p90_count = VALUES(p90_count), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int upsertAll(List<CrowdRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return 0;
+        }
+        int[][] results = jdbcTemplate.batchUpdate(UPSERT_SQL, rollups, rollups.size(), (ps, r) -> {
+            ps.setString(1, r.getBeachId());
+            ps.setString(2, r.getGranularity().name());
+            ps.setTimestamp(3, Timestamp.valueOf(r.getBucketStart()));
+            ps.setInt(4, r.getSampleCount());
+            ps.setInt(5, r.getMinCount());
+            ps.setInt(6, r.getMaxCount());
+            ps.setDouble(7, r.getAvgCount());
+            ps.setInt(8, r.getP90Count());
+            ps.setTimestamp(9, Timestamp.valueOf(r.getUpdatedAt()));
+        });
+
+        int processed = 0;
+        for (int[] batch : results) {
+            processed += batch.length;
+        }
+        return processed;
+    }
+}
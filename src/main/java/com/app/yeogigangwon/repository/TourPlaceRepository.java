@@ -20,4 +20,11 @@ public interface TourPlaceRepository extends JpaRepository<TourPlace, Long> {
     @Query("SELECT t FROM TourPlace t ORDER BY " +
            "SQRT(POWER(t.latitude - :lat, 2) + POWER(t.longitude - :lon, 2))")
     List<TourPlace> findNearbyPlaces(@Param("lat") double lat, @Param("lon") double lon);
+
+    /**
+     * 좌표가 있는 관광지의 위도/경도만 조회 (날씨 격자 집계용)
+     */
+    @Query("SELECT t.latitude, t.longitude FROM TourPlace t " +
+           "WHERE t.latitude IS NOT NULL AND t.longitude IS NOT NULL")
+    List<Object[]> findAllCoordinates();
 }
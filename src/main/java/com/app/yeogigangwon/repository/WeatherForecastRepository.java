@@ -2,6 +2,7 @@ package com.app.yeogigangwon.repository;
 
 import com.app.yeogigangwon.domain.WeatherForecast;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,18 +14,26 @@ import java.util.List;
  * 기상 예보 데이터 접근을 위한 JPA Repository
  */
 @Repository
-public interface WeatherForecastRepository extends JpaRepository<WeatherForecast, Long> {
-    
+public interface WeatherForecastRepository extends JpaRepository<WeatherForecast, Long>, WeatherForecastRepositoryCustom {
+
     /**
-     * 특정 격자 좌표의 최신 기상 예보 조회
+     * 특정 격자의 예보 시각 범위 조회 (uk_grid_fcst_base 인덱스 범위 스캔)
+     * 같은 예보 시각은 최신 발표가 먼저 오도록 정렬
      */
-    @Query("SELECT w FROM WeatherForecast w " +
-           "WHERE w.nx = :nx AND w.ny = :ny " +
-           "ORDER BY w.forecastTime DESC")
-    List<WeatherForecast> findLatestByGrid(@Param("nx") String nx, @Param("ny") String ny);
-    
+    List<WeatherForecast> findByNxAndNyAndFcstDateTimeBetweenOrderByFcstDateTimeAscBaseDateTimeDesc(
+            int nx, int ny, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 격자 범위 안 모든 격자의 특정 예보 시각 조회 (idx_fcst_date_time 인덱스 사용)
+     * 같은 격자는 최신 발표가 먼저 오도록 정렬
+     */
+    List<WeatherForecast> findByFcstDateTimeAndNxBetweenAndNyBetweenOrderByBaseDateTimeDesc(
+            LocalDateTime fcstDateTime, int nxFrom, int nxTo, int nyFrom, int nyTo);
+
     /**
-     * 특정 시간 이후의 기상 예보 조회
+     * 보관 기간이 지난 예보 삭제 (idx_fcst_date_time 인덱스 사용)
      */
-    List<WeatherForecast> findByForecastTimeAfterOrderByForecastTime(LocalDateTime time);
+    @Modifying
+    @Query("DELETE FROM WeatherForecast w WHERE w.fcstDateTime < :threshold")
+    int deleteByFcstDateTimeBefore(@Param("threshold") LocalDateTime threshold);
 }
@@ -0,0 +1,20 @@
+package com.app.yeogigangwon.repository;
+
+import com.app.yeogigangwon.domain.WeatherForecast;
+
+import java.util.List;
+
+/**
+ * 기상 예보 대량 저장용 커스텀 Repository
+ */
+public interface WeatherForecastRepositoryCustom {
+
+    /**
+     * 예보 시간대 목록을 한 번의 JDBC 배치로 저장
+     * 같은 (격자, 예보 시각, 발표 시각)이 이미 있으면 값만 갱신
+     *
+     * @param forecasts 저장할 예보 목록
+     * @return 처리된 행 수
+     */
+    int upsertAll(List<WeatherForecast> forecasts);
+}
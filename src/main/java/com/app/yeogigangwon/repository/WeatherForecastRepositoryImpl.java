@@ -0,0 +1,52 @@
+package com.app.yeogigangwon.repository;
+
+import com.app.yeogigangwon.domain.WeatherForecast;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * WeatherForecastRepositoryCustom 구현체
+ * IDENTITY 키 엔티티는 Hibernate 배치 insert가 안 되므로 JDBC 배치로 직접 저장
+ */
+@RequiredArgsConstructor
+public class WeatherForecastRepositoryImpl implements WeatherForecastRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO weather_forecast_timeline " +
+            "(nx, ny, base_date_time, fcst_date_time, tmp, pop, sky, wsd, pty, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "tmp = VALUES(tmp), pop = VALUES(pop), sky = VALUES(sky), " +
+            "wsd = VALUES(wsd), pty = VALUES(pty), created_at = VALUES(created_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int upsertAll(List<WeatherForecast> forecasts) {
+        if (forecasts.isEmpty()) {
+            return 0;
+        }
+        int[][] results = jdbcTemplate.batchUpdate(UPSERT_SQL, forecasts, forecasts.size(), (ps, f) -> {
+            ps.setInt(1, f.getNx());
+            ps.setInt(2, f.getNy());
+            ps.setTimestamp(3, Timestamp.valueOf(f.getBaseDateTime()));
+            ps.setTimestamp(4, Timestamp.valueOf(f.getFcstDateTime()));
+            ps.setObject(5, f.getTmp(), Types.INTEGER);
+            ps.setObject(6, f.getPop(), Types.INTEGER);
+            ps.setObject(7, f.getSky(), Types.INTEGER);
+            ps.setObject(8, f.getWsd(), Types.DOUBLE);
+            ps.setObject(9, f.getPty(), Types.INTEGER);
+            ps.setTimestamp(10, Timestamp.valueOf(f.getCreatedAt()));
+        });
+
+        int processed = 0;
+        for (int[] batch : results) {
+            processed += batch.length;
+        }
+        return processed;
+    }
+}
@@ -1,54 +1,252 @@
 package com.app.yeogigangwon.scheduler;
 
+import com.app.yeogigangwon.dto.CongestionDto;
+import com.app.yeogigangwon.event.WeatherRefreshCompletedEvent;
+import com.app.yeogigangwon.repository.TourPlaceRepository;
+import com.app.yeogigangwon.service.CongestionService;
+import com.app.yeogigangwon.service.WeatherCache;
 import com.app.yeogigangwon.service.WeatherService;
+import com.app.yeogigangwon.util.GridConverter;
+import com.app.yeogigangwon.util.GridConverter.GridCoordinate;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * 날씨 데이터 업데이트 스케줄러
- * 15분마다 새로운 API 호출로 최신 데이터 보장
+ * 15분마다 관광지/CCTV 해변이 있는 모든 격자를 모아 병렬로 갱신
+ * 한 주기의 요청은 호출 한도 안에서 갱신 구간(spread) 전체에 나눠 실행
+ * 주기의 작업이 모두 끝나면 WeatherRefreshCompletedEvent 발행 (래스터 등 격자 전체를 다시 만드는 쪽은 이때 한 번만 갱신)
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class WeatherUpdateScheduler {
 
+    // 기상청 격자 유효 범위
+    private static final int NX_MIN = 1, NX_MAX = 149;
+    private static final int NY_MIN = 1, NY_MAX = 253;
+
     private final WeatherService weatherService;
+    private final WeatherCache weatherCache;
+    private final TourPlaceRepository tourPlaceRepository;
+    private final CongestionService congestionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 예보 보관 일수 (예보 시각 기준)
+    @Value("${weather.forecast.retention-days:3}")
+    private int retentionDays;
+
+    // 이 시간(분) 안에 받아온 격자는 이번 주기에서 건너뜀
+    @Value("${weather.cache.refresh-after-minutes:10}")
+    private long refreshAfterMinutes;
+
+    // 동시에 기상청을 호출하는 최대 작업 수
+    @Value("${weather.refresh.concurrency:4}")
+    private int concurrency;
+
+    // 분당 최대 기상청 호출 수
+    @Value("${weather.refresh.max-requests-per-minute:30}")
+    private int maxRequestsPerMinute;
+
+    // 한 주기의 요청을 나눠 실행할 구간 (분, 주기 15분보다 짧게)
+    @Value("${weather.refresh.spread-minutes:12}")
+    private int spreadMinutes;
+
+    // 격자 갱신 전용 실행기 (빈으로 등록하면 @Scheduled 기본 스케줄러를 대체하므로 내부에서만 사용)
+    private ScheduledThreadPoolExecutor refreshExecutor;
+
+    // 직전 주기에 예약된 작업 (다음 주기 시작 시 남은 것은 취소)
+    private final List<ScheduledFuture<?>> pending = new ArrayList<>();
+    private Cycle currentCycle;
+
+    /**
+     * 갱신 주기 하나의 진행 상황 (마지막 작업이 끝나거나 남은 작업이 취소되면 완료 이벤트를 한 번 발행)
+     */
+    private class Cycle {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final int scheduled;
+        private final AtomicInteger remaining;
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        Cycle(int scheduled) {
+            this.scheduled = scheduled;
+            this.remaining = new AtomicInteger(scheduled);
+        }
+
+        void taskDone() {
+            if (remaining.decrementAndGet() == 0) {
+                complete();
+            }
+        }
+
+        void complete() {
+            if (completed.compareAndSet(false, true)) {
+                log.info("=== 날씨 갱신 주기 완료 - 예약 {}건, 실패 {}건 ===", scheduled, failed.get());
+                eventPublisher.publishEvent(new WeatherRefreshCompletedEvent(
+                        startedAt, scheduled, failed.get(), LocalDateTime.now()));
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        refreshExecutor = new ScheduledThreadPoolExecutor(
+                Math.max(1, concurrency), new CustomizableThreadFactory("weather-grid-"));
+        refreshExecutor.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
 
     /**
      * 15분마다 날씨 데이터 업데이트
-     * 강원도 주요 지역들의 날씨 데이터를 주기적으로 갱신
+     * 관광지와 CCTV 해변이 속한 격자 중 캐시가 오래된 순으로 예약
      */
     @Scheduled(fixedRate = 15 * 60 * 1000) // 15분마다 실행
     public void updateWeatherData() {
         log.info("=== 날씨 데이터 업데이트 스케줄러 시작 ===");
-        
+
         try {
-            // 강원도 주요 지역들의 날씨 데이터 업데이트
-            updateWeatherForLocation(37.7491, 128.8785, "춘천시 소양강댐");
-            updateWeatherForLocation(37.2756, 128.8950, "원주시");
-            updateWeatherForLocation(37.4500, 128.9000, "강릉시");
-            updateWeatherForLocation(37.3000, 128.7000, "태백시");
-            updateWeatherForLocation(38.2000, 128.6000, "속초시");
-            
-            log.info("=== 날씨 데이터 업데이트 완료 ===");
+            List<GridCoordinate> targets = selectTargets(collectGrids());
+            schedule(targets);
         } catch (Exception e) {
             log.error("날씨 데이터 업데이트 중 오류 발생", e);
         }
     }
 
     /**
-     * 특정 위치의 날씨 데이터 업데이트
+     * 관광지와 CCTV 해변 좌표를 격자로 변환해 중복 제거
+     */
+    private Set<GridCoordinate> collectGrids() {
+        Set<GridCoordinate> grids = new LinkedHashSet<>();
+
+        for (Object[] row : tourPlaceRepository.findAllCoordinates()) {
+            addGrid(grids, ((Number) row[0]).doubleValue(), ((Number) row[1]).doubleValue());
+        }
+        for (CongestionDto.CctvInfo cctv : congestionService.getCctvList()) {
+            addGrid(grids, cctv.getLatitude(), cctv.getLongitude());
+        }
+        return grids;
+    }
+
+    private void addGrid(Set<GridCoordinate> grids, double lat, double lon) {
+        GridCoordinate grid = GridConverter.convertToGrid(lat, lon);
+        if (grid.nx >= NX_MIN && grid.nx <= NX_MAX && grid.ny >= NY_MIN && grid.ny <= NY_MAX) {
+            grids.add(grid);
+        }
+    }
+
+    /**
+     * 아직 신선한 격자는 제외하고, 캐시에 없는 격자 → 오래된 격자 순으로 정렬한 뒤
+     * 이번 주기 호출 한도만큼 자름
+     */
+    private List<GridCoordinate> selectTargets(Set<GridCoordinate> grids) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime freshAfter = now.minusMinutes(refreshAfterMinutes);
+
+        List<GridCoordinate> targets = new ArrayList<>();
+        for (GridCoordinate grid : grids) {
+            WeatherCache.Entry entry = weatherCache.get(grid);
+            if (entry == null || entry.fetchedAt.isBefore(freshAfter)) {
+                targets.add(grid);
+            }
+        }
+        targets.sort(Comparator.comparing(grid -> {
+            WeatherCache.Entry entry = weatherCache.get(grid);
+            return entry == null ? LocalDateTime.MIN : entry.fetchedAt;
+        }));
+
+        int budget = Math.max(1, maxRequestsPerMinute) * Math.max(1, spreadMinutes);
+        log.info("날씨 갱신 대상 격자: 전체 {}개, 갱신 필요 {}개, 이번 주기 한도 {}개",
+                grids.size(), targets.size(), budget);
+        return targets.size() > budget ? targets.subList(0, budget) : targets;
+    }
+
+    /**
+     * 대상 격자를 spread 구간에 고르게 나눠 예약 (분당 한도보다 촘촘하게는 예약하지 않음)
+     */
+    private void schedule(List<GridCoordinate> targets) {
+        synchronized (pending) {
+            int cancelled = 0;
+            for (ScheduledFuture<?> future : pending) {
+                if (future.cancel(false)) {
+                    cancelled++;
+                }
+            }
+            pending.clear();
+            if (cancelled > 0) {
+                log.warn("직전 주기에서 실행되지 못한 날씨 갱신 {}건 취소", cancelled);
+                // 취소된 작업은 끝나지 않으므로 직전 주기를 여기서 완료 처리
+                currentCycle.complete();
+            }
+
+            if (targets.isEmpty()) {
+                log.info("=== 날씨 데이터 업데이트 대상 없음 ===");
+                return;
+            }
+
+            long spreadMillis = TimeUnit.MINUTES.toMillis(Math.max(1, spreadMinutes));
+            long minIntervalMillis = 60_000L / Math.max(1, maxRequestsPerMinute);
+            long intervalMillis = Math.max(minIntervalMillis, spreadMillis / targets.size());
+
+            Cycle cycle = new Cycle(targets.size());
+            currentCycle = cycle;
+            for (int i = 0; i < targets.size(); i++) {
+                GridCoordinate grid = targets.get(i);
+                pending.add(refreshExecutor.schedule(
+                        () -> refreshGrid(grid, cycle), i * intervalMillis, TimeUnit.MILLISECONDS));
+            }
+            log.info("=== 날씨 데이터 업데이트 {}건 예약 완료 (간격 {}ms) ===", targets.size(), intervalMillis);
+        }
+    }
+
+    /**
+     * 특정 격자의 날씨 데이터 갱신
+     */
+    private void refreshGrid(GridCoordinate grid, Cycle cycle) {
+        try {
+            weatherService.refresh(grid);
+            log.debug("격자 {} 날씨 데이터 업데이트 완료", grid);
+        } catch (Exception e) {
+            log.warn("격자 {} 날씨 데이터 업데이트 실패 (이번 주기 누적 {}건): {}",
+                    grid, cycle.failed.incrementAndGet(), e.getMessage());
+        } finally {
+            cycle.taskDone();
+        }
+    }
+
+    /**
+     * 매일 새벽 보관 기간이 지난 예보 시간대 삭제
      */
-    private void updateWeatherForLocation(double lat, double lon, String locationName) {
+    @Scheduled(cron = "0 30 3 * * *", zone = "Asia/Seoul")
+    public void purgeExpiredForecasts() {
         try {
-            log.info("{} 날씨 데이터 업데이트 중...", locationName);
-            weatherService.fetchAndSave(lat, lon);
-            log.info("{} 날씨 데이터 업데이트 완료", locationName);
+            int deleted = weatherService.purgeExpiredForecasts(retentionDays);
+            log.info("보관 기간({}일)이 지난 예보 {}건 삭제", retentionDays, deleted);
         } catch (Exception e) {
-            log.warn("{} 날씨 데이터 업데이트 실패: {}", locationName, e.getMessage());
+            log.error("예보 보관 기간 정리 중 오류 발생", e);
         }
     }
 }
@@ -2,46 +2,250 @@ package com.app.yeogigangwon.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.core.io.ClassPathResource;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * backend/data/beach_area_map.json 을 로드해
- * beach_id -> { beach_name_std, sand_area_m2 } 형태로 제공
+ * beach_id -> { beach_name_std, sand_area_m2, region } 형태로 제공
+ *
+ * JSON은 로드 시 불변 인덱스(이름 → 번호, 번호 → double 면적)로 한 번만 변환해 조회 때 박싱/형 검사가 없음
+ * 외부 경로(congestion.area-map.path)를 지정하면 파일 변경을 감시해 인덱스를 통째로 교체 (재배포 없이 면적 수정)
  */
 @Service
 public class AreaMapService {
+
+    private static final Logger log = LoggerFactory.getLogger(AreaMapService.class);
+
+    // 이름 뒤에 붙어 와도 같은 해변으로 보는 접미사
+    private static final List<String> SUFFIXES = List.of("해수욕장", "해변");
+    // 알 수 없는 해변 경고 로그를 남길 최대 ID 수 (임의 ID로 로그가 넘치지 않도록)
+    private static final int MAX_WARNED_IDS = 100;
+
+    /**
+     * 면적 인덱스 (불변, 재로딩 시 통째로 교체)
+     *
+     * @param ordinals 해변 ID/표준 이름/정규화 이름 → 번호
+     * @param areas    번호 → 모래사장 면적(m^2)
+     * @param regions  번호 → 시/군 (없으면 null)
+     */
+    private record AreaIndex(Map<String, Integer> ordinals, double[] areas, String[] regions) {
+        static final AreaIndex EMPTY = new AreaIndex(Map.of(), new double[0], new String[0]);
+
+        int ordinal(String beachId) {
+            Integer i = ordinals.get(beachId);
+            if (i == null) {
+                i = ordinals.get(normalize(beachId));
+            }
+            return i == null ? -1 : i;
+        }
+    }
+
     // JSON 파싱을 위한 Jackson ObjectMapper
     private final ObjectMapper mapper = new ObjectMapper();
-    // beach_id를 key로, 각 해변의 표준 이름/면적 등을 담는 맵
-    // volatile → 멀티스레드 환경에서도 최신 값 보장
-    private volatile Map<String, Map<String, Object>> areaMap;
+    // volatile → 재로딩 후 모든 스레드가 새 인덱스를 바로 봄
+    private volatile AreaIndex index = AreaIndex.EMPTY;
+
+    private final Counter unknownLookups;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> warnedIds = ConcurrentHashMap.newKeySet();
+
+    // 외부 면적 파일 경로 (비우면 클래스패스 data/beach_area_map.json만 사용)
+    private final String externalPath;
+    private WatchService watchService;
+
+    public AreaMapService(MeterRegistry meterRegistry,
+                          @Value("${congestion.area-map.path:}") String externalPath) {
+        this.meterRegistry = meterRegistry;
+        this.externalPath = externalPath;
+        this.unknownLookups = Counter.builder("congestion.area.unknown")
+                .description("면적 정보가 없는 해변 ID로 들어온 조회 수")
+                .register(meterRegistry);
+        Gauge.builder("congestion.area.beaches", this, s -> s.index.areas().length)
+                .description("면적 인덱스에 등록된 해변 수")
+                .register(meterRegistry);
+    }
 
     @PostConstruct
     public void load() throws Exception {
-        // ClassPathResource를 사용하여 리소스 폴더의 파일을 안전하게 읽어옴
-        ClassPathResource resource = new ClassPathResource("data/beach_area_map.json");
-        if (!resource.exists()) return;
+        Path external = externalPath.isBlank() ? null : Path.of(externalPath);
+        if (external != null && Files.exists(external)) {
+            reload(external);
+        } else {
+            // ClassPathResource를 사용하여 리소스 폴더의 파일을 안전하게 읽어옴
+            ClassPathResource resource = new ClassPathResource("data/beach_area_map.json");
+            if (resource.exists()) {
+                try (InputStream in = resource.getInputStream()) {
+                    index = compile(read(in));
+                }
+            }
+        }
+        if (external != null) {
+            watch(external);
+        }
+    }
+
+    @PreDestroy
+    public void stopWatching() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
 
-        try (InputStream in = resource.getInputStream()) {
-            areaMap = mapper.readValue(in, new TypeReference<Map<String, Map<String, Object>>>() {});
+    /**
+     * beach_id(또는 해변 이름)로 모래사장 면적(m^2) 조회
+     * 없으면 비어 있는 값을 반환하고 congestion.area.unknown 지표에 집계
+     */
+    public OptionalDouble findSandAreaM2(String beachId) {
+        AreaIndex current = index;
+        int i = beachId == null ? -1 : current.ordinal(beachId);
+        if (i < 0) {
+            unknownLookups.increment();
+            if (beachId != null && warnedIds.size() < MAX_WARNED_IDS && warnedIds.add(beachId)) {
+                log.warn("No sand area for beach '{}'", beachId);
+            }
+            return OptionalDouble.empty();
         }
+        return OptionalDouble.of(current.areas()[i]);
     }
 
-    /** beach_id로 면적(m^2) 반환. 없으면 0 */
-    public double getSandAreaM2(String beachId) {
-        if (areaMap == null) return 0d; // 데이터가 아직 로드되지 않은 경우
-        Map<String, Object> rec = areaMap.get(beachId);
-        if (rec == null) return 0d; // 해당 beachId가 없을 경우
-        Object v = rec.get("sand_area_m2");
-        // 숫자 타입일 경우 double로 변환하여 반환
-        return (v instanceof Number) ? ((Number) v).doubleValue() : 0d;
+    /**
+     * beach_id(또는 해변 이름)로 시/군 조회 (면적 조회와 같은 이름 정규화 적용, 지표 집계 없음)
+     */
+    public Optional<String> findRegion(String beachId) {
+        AreaIndex current = index;
+        int i = beachId == null ? -1 : current.ordinal(beachId);
+        return i < 0 ? Optional.empty() : Optional.ofNullable(current.regions()[i]);
+    }
+
+    // 파일을 읽어 새 인덱스로 교체 (실패하면 기존 인덱스 유지)
+    private void reload(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            AreaIndex next = compile(read(in));
+            index = next;
+            meterRegistry.counter("congestion.area.reloads", "result", "success").increment();
+            log.info("Beach area index loaded from {}: {} beaches", file, next.areas().length);
+        } catch (IOException | RuntimeException e) {
+            meterRegistry.counter("congestion.area.reloads", "result", "failure").increment();
+            log.error("Failed to load beach area map {}, keeping previous index: {}", file, e.getMessage());
+        }
+    }
+
+    private Map<String, Map<String, Object>> read(InputStream in) throws IOException {
+        return mapper.readValue(in, new TypeReference<Map<String, Map<String, Object>>>() {});
+    }
+
+    // JSON 맵 → 불변 인덱스 (면적이 숫자가 아닌 항목은 제외)
+    private static AreaIndex compile(Map<String, Map<String, Object>> raw) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        List<Double> areas = new ArrayList<>();
+        List<String> regions = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> e : raw.entrySet()) {
+            Object v = e.getValue() == null ? null : e.getValue().get("sand_area_m2");
+            if (!(v instanceof Number n) || n.doubleValue() <= 0) {
+                log.warn("Skipping beach '{}' without a positive sand_area_m2", e.getKey());
+                continue;
+            }
+            Object std = e.getValue().get("beach_name_std");
+            String name = std instanceof String s && !s.isBlank() ? s : e.getKey();
+            int ordinal = areas.size();
+            areas.add(n.doubleValue());
+            regions.add(e.getValue().get("region") instanceof String r && !r.isBlank() ? r : null);
+            // ID, 표준 이름, 각각의 정규화 형태로 모두 찾을 수 있게 (먼저 등록된 해변 우선)
+            for (String key : List.of(e.getKey(), name, normalize(e.getKey()), normalize(name))) {
+                ordinals.putIfAbsent(key, ordinal);
+            }
+        }
+        double[] areaArray = new double[areas.size()];
+        for (int i = 0; i < areaArray.length; i++) {
+            areaArray[i] = areas.get(i);
+        }
+        return new AreaIndex(Map.copyOf(ordinals), areaArray, regions.toArray(new String[0]));
+    }
+
+    // 이름 정규화: 유니코드 NFC, 공백 제거, "해수욕장"/"해변" 접미사 제거
+    private static String normalize(String name) {
+        String n = Normalizer.normalize(name, Normalizer.Form.NFC).replaceAll("\\s+", "");
+        for (String suffix : SUFFIXES) {
+            if (n.length() > suffix.length() && n.endsWith(suffix)) {
+                n = n.substring(0, n.length() - suffix.length());
+            }
+        }
+        return n;
+    }
+
+    // 외부 파일이 있는 디렉터리를 감시하다가 해당 파일이 생성/수정되면 재로딩 (데몬 스레드)
+    private void watch(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            log.warn("Beach area map directory {} does not exist, hot reload disabled", dir);
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            log.warn("Cannot watch {}, hot reload disabled: {}", dir, e.getMessage());
+            return;
+        }
+        Path fileName = file.getFileName();
+        Thread watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (fileName.equals(event.context())) {
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+                    if (changed) {
+                        // 편집기가 여러 번 나눠 쓰는 경우를 위해 잠시 기다린 뒤 한 번만 읽음
+                        Thread.sleep(500);
+                        WatchKey pending = watchService.poll();
+                        if (pending != null) {
+                            pending.pollEvents();
+                            pending.reset();
+                        }
+                        reload(file);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ClosedWatchServiceException e) {
+                // 종료
+            }
+        }, "area-map-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
     }
 }
@@ -0,0 +1,256 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.dto.CongestionDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 카메라별 분석 간격 계획
+ * 고정 15분 주기 대신 카메라마다 다음 분석 시각을 따로 잡고, 결과에 따라 간격을 조절
+ *
+ * - 사람 수 변화가 크거나 등급 경계(여유/보통/혼잡 임계치) 근처면 간격을 절반으로
+ * - 비어 있거나 변화가 작으면 1.5배로 (최소~최대 범위 안)
+ * - 그 외에는 기본 간격 쪽으로 되돌림
+ * - 추론 없이 재사용한 값은 변화가 없다는 근거가 아니므로 늘리지 않고 기본 간격 쪽으로 되돌림
+ * - 계획된 전체 분석 횟수가 시간당 예산을 넘으면 모든 간격을 같은 비율로 늘리고,
+ *   최근 1시간 실제 추론 횟수가 예산에 닿으면 남은 카메라는 다음 틱으로 미룸
+ * - 심야(quiet hours)에는 분석하지 않음 (어두운 화면은 추론 의미가 없음)
+ */
+@Component
+public class CaptureIntervalPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(CaptureIntervalPlanner.class);
+
+    private static final double SHRINK = 0.5;            // 변동/경계 근처일 때 간격 배율
+    private static final double GROW = 1.5;              // 안정/빈 해변일 때 간격 배율
+    private static final double VOLATILE_RATIO = 0.3;    // 직전 대비 이 비율 이상 변하면 변동 큼
+    private static final double STABLE_RATIO = 0.1;      // 직전 대비 이 비율 미만이면 안정
+    private static final int VOLATILITY_FLOOR = 5;       // 적은 인원에서 1~2명 차이를 큰 변화로 보지 않도록 분모 하한
+    private static final double NEAR_THRESHOLD_RATIO = 0.15; // 임계치의 이 비율 이내면 경계 근처
+    private static final int NEAR_THRESHOLD_MIN = 2;     // 경계 근처 판정 최소 인원 차
+
+    // 대한민국 표준시 타임존 상수
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    // 카메라 한 대의 계획 상태
+    private static class CameraState {
+        volatile double intervalMinutes;
+        volatile LocalDateTime nextDueAt;   // null이면 즉시 분석
+        volatile Integer lastCount;
+
+        CameraState(double intervalMinutes) {
+            this.intervalMinutes = intervalMinutes;
+        }
+    }
+
+    private final Map<String, CameraState> states = new ConcurrentHashMap<>();
+    // 최근 1시간 추론 시각 (프레임 재사용은 추론이 없으므로 제외)
+    private final Deque<LocalDateTime> inferences = new ArrayDeque<>();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cctv.schedule.min-interval-minutes:5}")
+    private double minIntervalMinutes;
+
+    @Value("${cctv.schedule.base-interval-minutes:15}")
+    private double baseIntervalMinutes;
+
+    @Value("${cctv.schedule.max-interval-minutes:60}")
+    private double maxIntervalMinutes;
+
+    // 시간당 추론 예산 (Python 서비스가 감당하는 양, 기본: 카메라 15대 × 15분 주기)
+    @Value("${cctv.schedule.budget-per-hour:60}")
+    private int budgetPerHour;
+
+    // 분석하지 않는 시간대 [start, end)
+    @Value("${cctv.schedule.quiet-start-hour:22}")
+    private int quietStartHour;
+
+    @Value("${cctv.schedule.quiet-end-hour:6}")
+    private int quietEndHour;
+
+    public CaptureIntervalPlanner(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("cctv.schedule.inferences.last-hour", this, p -> p.inferencesInLastHour(LocalDateTime.now(KST)))
+                .description("최근 1시간 추론 횟수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 이번 틱에 분석할 카메라 (다음 분석 시각이 지난 카메라 중 오래 기다린 순, 예산 안에서)
+     */
+    public List<CongestionDto.CctvInfo> dueCameras(List<CongestionDto.CctvInfo> cameras, LocalDateTime now) {
+        if (isQuiet(now)) {
+            return List.of();
+        }
+        List<CongestionDto.CctvInfo> due = new ArrayList<>();
+        for (CongestionDto.CctvInfo cctv : cameras) {
+            LocalDateTime nextDueAt = state(cctv.getId()).nextDueAt;
+            if (nextDueAt == null || !nextDueAt.isAfter(now)) {
+                due.add(cctv);
+            }
+        }
+        due.sort(Comparator.comparing(c -> state(c.getId()).nextDueAt,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        int remaining = Math.max(0, budgetPerHour - inferencesInLastHour(now));
+        if (due.size() > remaining) {
+            log.info("Hourly inference budget nearly spent ({} of {} used), deferring {} cameras",
+                    budgetPerHour - remaining, budgetPerHour, due.size() - remaining);
+            return due.subList(0, remaining);
+        }
+        return due;
+    }
+
+    /**
+     * 분석 결과를 반영해 카메라의 다음 분석 시각 계산
+     *
+     * @param cctvId      CCTV ID
+     * @param personCount 사람 수 (실패 시 null)
+     * @param reused      추론 없이 직전 값을 재사용했는지 여부
+     * @param tRelax      "보통" 임계치
+     * @param tBusy       "혼잡" 임계치
+     * @param now         분석 시각
+     */
+    public void observe(String cctvId, Integer personCount, boolean reused, int tRelax, int tBusy, LocalDateTime now) {
+        CameraState st = state(cctvId);
+        if (personCount != null) {
+            if (!reused) {
+                synchronized (inferences) {
+                    inferences.addLast(now);
+                }
+            }
+            if (reused) {
+                // 재사용한 값은 같은 수가 반복될 뿐이라 안정 근거로 쓰지 않음 (늘어난 간격만 기본 쪽으로 되돌림)
+                st.intervalMinutes = Math.max(minIntervalMinutes, towardBase(st.intervalMinutes));
+            } else {
+                st.intervalMinutes = nextInterval(st, personCount, tRelax, tBusy);
+                st.lastCount = personCount;
+            }
+        }
+        // 실패하면 간격은 그대로 두고 다음 예정 시각에 다시 시도
+        st.nextDueAt = now.plusSeconds(Math.round(effectiveIntervalMinutes(cctvId) * 60));
+        log.debug("CCTV {} next capture at {} (interval {} min)", cctvId, st.nextDueAt, Math.round(st.intervalMinutes));
+    }
+
+    /**
+     * 예산을 반영한 카메라의 실제 분석 간격 (분)
+     */
+    public double effectiveIntervalMinutes(String cctvId) {
+        return state(cctvId).intervalMinutes * budgetScale();
+    }
+
+    /**
+     * 카메라가 다음에 분석될 시각 (아직 분석 전이면 다음 틱, 심야면 심야가 끝나는 시각)
+     */
+    public LocalDateTime nextDueAt(String cctvId, LocalDateTime now) {
+        LocalDateTime runAt = nextRunAt(now);
+        CameraState st = states.get(cctvId);
+        if (st == null || st.nextDueAt == null || !st.nextDueAt.isAfter(runAt)) {
+            return runAt;
+        }
+        return st.nextDueAt;
+    }
+
+    /**
+     * 다음 분석이 실행될 가장 이른 시각 (틱은 매분 정각, 심야면 심야가 끝나는 시각)
+     */
+    public LocalDateTime nextRunAt(LocalDateTime now) {
+        if (isQuiet(now)) {
+            LocalDateTime end = now.truncatedTo(ChronoUnit.DAYS).plusHours(quietEndHour);
+            return end.isAfter(now) ? end : end.plusDays(1);
+        }
+        LocalDateTime nextTick = now.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDateTime earliest = null;
+        for (CameraState st : states.values()) {
+            if (st.nextDueAt == null) {
+                return nextTick;
+            }
+            if (earliest == null || st.nextDueAt.isBefore(earliest)) {
+                earliest = st.nextDueAt;
+            }
+        }
+        if (earliest == null || !earliest.isAfter(nextTick)) {
+            return nextTick;
+        }
+        // 예정 시각 이후 첫 틱
+        LocalDateTime tick = earliest.truncatedTo(ChronoUnit.MINUTES);
+        return tick.isBefore(earliest) ? tick.plusMinutes(1) : tick;
+    }
+
+    private double nextInterval(CameraState st, int count, int tRelax, int tBusy) {
+        double interval = st.intervalMinutes;
+        Integer prev = st.lastCount;
+        double volatility = prev == null ? 0
+                : (double) Math.abs(count - prev) / Math.max(VOLATILITY_FLOOR, Math.max(prev, count));
+        boolean nearThreshold = isNear(count, tRelax) || isNear(count, tBusy);
+
+        if (volatility >= VOLATILE_RATIO || nearThreshold) {
+            interval *= SHRINK;
+        } else if (count == 0 || (prev != null && volatility < STABLE_RATIO)) {
+            interval *= GROW;
+        } else {
+            interval = towardBase(interval);
+        }
+        return Math.max(minIntervalMinutes, Math.min(maxIntervalMinutes, interval));
+    }
+
+    private double towardBase(double interval) {
+        return interval + (baseIntervalMinutes - interval) * 0.5;
+    }
+
+    private static boolean isNear(int count, int threshold) {
+        return Math.abs(count - threshold) <= Math.max(NEAR_THRESHOLD_MIN, threshold * NEAR_THRESHOLD_RATIO);
+    }
+
+    // 계획된 시간당 분석 횟수가 예산을 넘으면 그만큼 모든 간격을 늘리는 배율 (1 이상)
+    private double budgetScale() {
+        double plannedPerHour = 0;
+        for (CameraState st : states.values()) {
+            plannedPerHour += 60.0 / st.intervalMinutes;
+        }
+        return Math.max(1.0, plannedPerHour / budgetPerHour);
+    }
+
+    private int inferencesInLastHour(LocalDateTime now) {
+        synchronized (inferences) {
+            LocalDateTime threshold = now.minusHours(1);
+            while (!inferences.isEmpty() && inferences.peekFirst().isBefore(threshold)) {
+                inferences.pollFirst();
+            }
+            return inferences.size();
+        }
+    }
+
+    private boolean isQuiet(LocalDateTime now) {
+        int hour = now.getHour();
+        return quietStartHour > quietEndHour
+                ? hour >= quietStartHour || hour < quietEndHour
+                : hour >= quietStartHour && hour < quietEndHour;
+    }
+
+    private CameraState state(String cctvId) {
+        return states.computeIfAbsent(cctvId, id -> {
+            CameraState st = new CameraState(baseIntervalMinutes);
+            Gauge.builder("cctv.schedule.interval", st, s -> s.intervalMinutes)
+                    .description("카메라별 분석 간격 (분, 예산 배율 적용 전)")
+                    .tag("cctv", id)
+                    .register(meterRegistry);
+            return st;
+        });
+    }
+}
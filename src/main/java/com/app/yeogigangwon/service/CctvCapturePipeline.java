@@ -0,0 +1,397 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.dto.CongestionDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * CCTV 혼잡도 분석 파이프라인
+ * 수집(fetch) → 전처리(preprocess) → 추론(infer) → 저장(persist) 단계를 단계별 스레드 풀에서 실행
+ * 전처리 단계에서 카메라별 ROI로 잘라내고 모델 입력 크기로 줄여 보내며, 분석한 영역 비율(roiRatio)을 기록과 함께 저장
+ *
+ * 카메라마다 독립된 CompletableFuture 체인으로 흘러가므로 한 카메라가 멈춰도 다른 카메라는 계속 진행되고,
+ * 주기 전체 시간은 카메라 수의 합이 아니라 가장 느린 카메라 수준으로 끝난다.
+ *
+ * 추론은 CrowdCounter 백엔드에 맡긴다. 배치가 유리한 백엔드(python-api)면 한 주기의 프레임을 한 번에 묶어 보내고(batch),
+ * 배치 요청이 실패했거나 결과가 빠진 카메라만 단건으로 다시 보낸다. 인프로세스 백엔드(onnx)는 카메라별로 병렬 추론한다.
+ */
+@Component
+public class CctvCapturePipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(CctvCapturePipeline.class);
+
+    /** 파이프라인 단계 */
+    public enum Stage { FETCH, PREPROCESS, INFER, PERSIST }
+
+    /**
+     * 카메라 한 대의 처리 결과
+     *
+     * @param cctvId       CCTV ID
+     * @param personCount  감지된 사람 수 (실패 시 null)
+     * @param frameReused  프레임이 바뀌지 않아 직전 사람 수를 재사용했는지 여부
+     * @param error        실패 사유 (성공 시 null)
+     * @param stageMillis  단계별 소요 시간 (실행된 단계만)
+     * @param totalMillis  전체 소요 시간
+     */
+    public record CameraResult(String cctvId, Integer personCount, boolean frameReused, String error,
+                               Map<Stage, Long> stageMillis, long totalMillis) {
+        public boolean succeeded() {
+            return error == null;
+        }
+    }
+
+    /**
+     * 한 주기의 처리 결과
+     *
+     * @param cameras       카메라별 결과
+     * @param elapsedMillis 주기 전체 소요 시간
+     */
+    public record CycleReport(List<CameraResult> cameras, long elapsedMillis) {
+        public long succeeded() {
+            return cameras.stream().filter(CameraResult::succeeded).count();
+        }
+
+        public long failed() {
+            return cameras.size() - succeeded();
+        }
+
+        public long reused() {
+            return cameras.stream().filter(CameraResult::frameReused).count();
+        }
+
+        public CameraResult slowest() {
+            return cameras.stream().max(Comparator.comparingLong(CameraResult::totalMillis)).orElse(null);
+        }
+    }
+
+    private final CrowdRecordWriter crowdRecordWriter;
+    private final CctvFrameChangeDetector frameChangeDetector;
+    private final CctvFramePreprocessor framePreprocessor;
+    private final CctvFrameCache frameCache;
+    private final CrowdWindowStore crowdWindowStore;
+    private final CrowdCounter crowdCounter;
+    private final ThreadPoolTaskExecutor fetchExecutor;
+    private final ThreadPoolTaskExecutor preprocessExecutor;
+    private final ThreadPoolTaskExecutor inferExecutor;
+    private final ThreadPoolTaskExecutor persistExecutor;
+
+    // CCTV 이미지 수집용 HTTP 클라이언트
+    private final RestTemplate cctvRestTemplate;
+
+    private final Timer cycleTimer;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+
+    // 카메라 한 대가 전체 단계를 마쳐야 하는 시간 (밀리초)
+    @Value("${cctv.pipeline.camera-timeout-ms:60000}")
+    private long cameraTimeoutMillis;
+
+    // 추론 방식 (batch: 백엔드가 배치를 선호하면 주기당 요청 하나, single: 카메라마다 요청)
+    @Value("${cctv.inference.mode:batch}")
+    private String inferenceMode;
+
+    public CctvCapturePipeline(
+            CrowdRecordWriter crowdRecordWriter,
+            CctvFrameChangeDetector frameChangeDetector,
+            CctvFramePreprocessor framePreprocessor,
+            CctvFrameCache frameCache,
+            CrowdWindowStore crowdWindowStore,
+            CrowdCounter crowdCounter,
+            ThreadPoolTaskExecutor cctvFetchExecutor,
+            ThreadPoolTaskExecutor cctvPreprocessExecutor,
+            ThreadPoolTaskExecutor cctvInferExecutor,
+            ThreadPoolTaskExecutor cctvPersistExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${cctv.fetch.connect-timeout-ms:3000}") int fetchConnectTimeoutMillis,
+            @Value("${cctv.fetch.read-timeout-ms:5000}") int fetchReadTimeoutMillis) {
+        this.crowdRecordWriter = crowdRecordWriter;
+        this.frameChangeDetector = frameChangeDetector;
+        this.framePreprocessor = framePreprocessor;
+        this.frameCache = frameCache;
+        this.crowdWindowStore = crowdWindowStore;
+        this.crowdCounter = crowdCounter;
+        this.fetchExecutor = cctvFetchExecutor;
+        this.preprocessExecutor = cctvPreprocessExecutor;
+        this.inferExecutor = cctvInferExecutor;
+        this.persistExecutor = cctvPersistExecutor;
+        this.cctvRestTemplate = restTemplate(fetchConnectTimeoutMillis, fetchReadTimeoutMillis);
+
+        this.cycleTimer = Timer.builder("cctv.cycle.duration")
+                .description("CCTV 분석 주기 전체 소요 시간")
+                .tag("backend", crowdCounter.name())
+                .register(meterRegistry);
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("cctv.stage.duration")
+                    .description("CCTV 파이프라인 단계별 소요 시간")
+                    .tag("stage", stage.name().toLowerCase())
+                    .tag("backend", crowdCounter.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    private static RestTemplate restTemplate(int connectTimeoutMillis, int readTimeoutMillis) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(connectTimeoutMillis);
+        factory.setReadTimeout(readTimeoutMillis);
+        return new RestTemplate(factory);
+    }
+
+    // 수집 결과 (304 응답이면 image는 null)
+    private record CapturedFrame(byte[] image, String etag, String lastModified, boolean notModified) {}
+
+    // 전처리 결과 (프레임이 바뀌지 않았으면 reusedCount에 직전 사람 수, roiRatio = 분석 영역 비율)
+    private record PreparedFrame(byte[] image, CctvFrameChangeDetector.Signature signature, Integer reusedCount,
+                                 double roiRatio) {}
+
+    // 추론 결과 (reused = 추론 없이 직전 값을 재사용, roiRatio = 분석 영역 비율)
+    private record Count(int personCount, boolean reused, double roiRatio) {}
+
+    /**
+     * 모든 카메라를 파이프라인에 넣고 전부 끝날 때까지 대기
+     *
+     * @param cameras   분석 대상 CCTV 목록
+     * @param timestamp 이번 주기 기록 시각
+     * @return 주기 결과
+     */
+    public CycleReport runCycle(List<CongestionDto.CctvInfo> cameras, LocalDateTime timestamp) {
+        long started = System.nanoTime();
+
+        // 1~2단계: 카메라별 수집 → 전처리 (변경 감지 포함)
+        List<CameraRun> runs = new ArrayList<>(cameras.size());
+        for (CongestionDto.CctvInfo cctv : cameras) {
+            CameraRun run = new CameraRun(cctv);
+            run.prepared = CompletableFuture
+                    .supplyAsync(() -> run.stage(Stage.FETCH, () -> fetch(cctv, true)), fetchExecutor)
+                    .thenApplyAsync(frame -> run.stage(Stage.PREPROCESS, () -> preprocess(cctv, frame, timestamp)), preprocessExecutor);
+            runs.add(run);
+        }
+
+        // 3단계: 추론 (배치 또는 단건, 바뀌지 않은 프레임은 제외)
+        CompletableFuture<Map<String, Integer>> batch = "single".equalsIgnoreCase(inferenceMode) || !crowdCounter.prefersBatch()
+                ? CompletableFuture.completedFuture(Map.of())
+                : inferBatchWhenReady(runs);
+
+        // 4단계: 저장 (카메라별 타임아웃은 수집부터 저장까지 전체에 적용)
+        List<CompletableFuture<CameraResult>> futures = new ArrayList<>(runs.size());
+        for (CameraRun run : runs) {
+            futures.add(run.prepared
+                    .thenCombine(batch, (frame, counts) -> resolveCount(run, frame, counts))
+                    .thenCompose(count -> count)
+                    .thenApplyAsync(count -> run.stage(Stage.PERSIST, () -> persist(run.cctv, count, timestamp)), persistExecutor)
+                    .orTimeout(cameraTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .handle(run::finish));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        List<CameraResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<CameraResult> future : futures) {
+            results.add(future.join());
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        cycleTimer.record(elapsed, TimeUnit.MILLISECONDS);
+        return new CycleReport(results, elapsed);
+    }
+
+    /**
+     * 카메라의 사람 수 결정: 재사용 → 배치 결과 → 단건 추론 순
+     */
+    private CompletableFuture<Count> resolveCount(CameraRun run, PreparedFrame frame, Map<String, Integer> batchCounts) {
+        if (frame.reusedCount() != null) {
+            return CompletableFuture.completedFuture(new Count(frame.reusedCount(), true, frame.roiRatio()));
+        }
+        Integer batched = batchCounts.get(run.cctvId);
+        if (batched != null) {
+            frameChangeDetector.remember(run.cctvId, frame.signature(), batched);
+            return CompletableFuture.completedFuture(new Count(batched, false, frame.roiRatio()));
+        }
+        // 남은 시간이 단건 호출 제한 시간보다 짧으면 끝날 수 없는 요청을 보내지 않음 (배치가 시간을 다 쓴 경우)
+        long remaining = run.remainingMillis();
+        if (remaining < crowdCounter.countTimeoutMillis()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Skipped single inference, only " + remaining + "ms left of camera budget"));
+        }
+        return CompletableFuture.supplyAsync(() -> run.stage(Stage.INFER, () -> {
+            int personCount = crowdCounter.count(run.cctvId, frame.image());
+            frameChangeDetector.remember(run.cctvId, frame.signature(), personCount);
+            return new Count(personCount, false, frame.roiRatio());
+        }), inferExecutor);
+    }
+
+    /**
+     * 모든 카메라의 전처리가 끝나면(성공/실패 무관) 추론이 필요한 프레임만 모아 배치 추론
+     * 배치 요청이 실패하면 빈 결과를 돌려줘 각 카메라가 단건 요청으로 넘어가게 함
+     * 배치 요청의 제한 시간은 카메라 제한 시간 중 남은 시간을 넘지 않음
+     */
+    private CompletableFuture<Map<String, Integer>> inferBatchWhenReady(List<CameraRun> runs) {
+        CompletableFuture<?>[] prepared = runs.stream().map(r -> r.prepared).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(prepared)
+                .handle((ignored, error) -> null)
+                .thenApplyAsync(ignored -> {
+                    Map<String, byte[]> frames = new LinkedHashMap<>();
+                    long remaining = Long.MAX_VALUE;
+                    for (CameraRun run : runs) {
+                        if (run.prepared.isDone() && !run.prepared.isCompletedExceptionally()) {
+                            PreparedFrame frame = run.prepared.join();
+                            if (frame.reusedCount() == null) {
+                                frames.put(run.cctvId, frame.image());
+                                remaining = Math.min(remaining, run.remainingMillis());
+                            }
+                        }
+                    }
+                    if (frames.isEmpty() || remaining <= 0) {
+                        return Map.<String, Integer>of();
+                    }
+
+                    long batchStarted = System.nanoTime();
+                    try {
+                        return crowdCounter.countBatch(frames, remaining);
+                    } catch (Exception e) {
+                        log.warn("Batch inference failed for {} frames, falling back to single requests: {}",
+                                frames.size(), e.getMessage());
+                        return Map.<String, Integer>of();
+                    } finally {
+                        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStarted);
+                        runs.stream()
+                                .filter(run -> frames.containsKey(run.cctvId))
+                                .forEach(run -> run.recordStage(Stage.INFER, elapsed));
+                    }
+                }, inferExecutor);
+    }
+
+    // 1) CCTV 이미지 수집 (conditional이면 직전 응답의 ETag/Last-Modified로 조건부 GET)
+    private CapturedFrame fetch(CongestionDto.CctvInfo cctv, boolean conditional) {
+        HttpHeaders headers = conditional ? frameChangeDetector.conditionalHeaders(cctv.getId()) : new HttpHeaders();
+        ResponseEntity<byte[]> response = cctvRestTemplate.exchange(
+                cctv.getCctvUrl(), HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        String etag = response.getHeaders().getETag();
+        String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return new CapturedFrame(null, etag, lastModified, true);
+        }
+
+        byte[] imageBytes = response.getBody();
+        if (imageBytes == null || imageBytes.length == 0) {
+            throw new IllegalStateException("Empty image");
+        }
+        return new CapturedFrame(imageBytes, etag, lastModified, false);
+    }
+
+    // 2) 전처리 (ROI 잘라내기/축소/재인코딩 후 변경 감지, ROI 밖의 변화(파도 등)는 변경으로 보지 않음)
+    //    디코딩한 원본으로 클라이언트용 썸네일도 갱신 (304면 직전 썸네일 유지)
+    private PreparedFrame preprocess(CongestionDto.CctvInfo cctv, CapturedFrame frame, LocalDateTime timestamp) {
+        if (frame.notModified()) {
+            CctvFrameChangeDetector.Signature signature = frameChangeDetector.lastSignature(cctv.getId());
+            Integer reused = frameChangeDetector.reusableCount(cctv.getId(), signature, true);
+            if (reused != null) {
+                return new PreparedFrame(null, signature, reused, framePreprocessor.roiRatio(cctv.getId()));
+            }
+            // 304를 받았지만 재사용 기한이 지난 경우 (조건부 헤더를 보낸 뒤 만료) → 조건 없이 한 번 다시 받음
+            log.debug("CCTV {} not modified but previous result expired, refetching", cctv.getId());
+            frame = fetch(cctv, false);
+            if (frame.notModified()) {
+                throw new IllegalStateException("Not modified without conditional headers");
+            }
+        }
+
+        CctvFramePreprocessor.Result processed = framePreprocessor.process(cctv.getId(), frame.image());
+        log.debug("CCTV {} preprocessed: {} → {} bytes (roi {})",
+                cctv.getId(), frame.image().length, processed.image().length, processed.roiRatio());
+        if (processed.source() != null) {
+            frameCache.update(cctv.getId(), processed.source(), timestamp);
+        }
+        CctvFrameChangeDetector.Signature signature = frameChangeDetector.sign(
+                processed.image(), processed.decoded(), frame.etag(), frame.lastModified());
+        Integer reused = frameChangeDetector.reusableCount(cctv.getId(), signature, false);
+        return new PreparedFrame(processed.image(), signature, reused, processed.roiRatio());
+    }
+
+    // 4) 저장 (윈도우는 즉시 반영, MySQL은 쓰기 버퍼를 거쳐 배치 저장, 재사용한 값이면 표시)
+    private Count persist(CongestionDto.CctvInfo cctv, Count count, LocalDateTime timestamp) {
+        crowdRecordWriter.write(cctv.getId(), count.personCount(), count.roiRatio(), timestamp, count.reused());
+        crowdWindowStore.record(cctv.getId(), timestamp, count.personCount());
+        return count;
+    }
+
+    /**
+     * 카메라 한 대의 진행 상태
+     * 시간 초과로 결과가 먼저 확정되면 뒤늦게 도착한 단계는 실행하지 않음 (실패로 보고된 카메라가 저장되지 않도록)
+     */
+    private class CameraRun {
+        private final CongestionDto.CctvInfo cctv;
+        private final String cctvId;
+        private final long startedAt = System.nanoTime();
+        private final Map<Stage, Long> stageMillis = new ConcurrentHashMap<>();
+        private volatile boolean finished;
+        // 수집 → 전처리까지 끝난 프레임
+        private CompletableFuture<PreparedFrame> prepared;
+
+        // 카메라 제한 시간 중 남은 시간 (밀리초)
+        long remainingMillis() {
+            return cameraTimeoutMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        }
+
+        CameraRun(CongestionDto.CctvInfo cctv) {
+            this.cctv = cctv;
+            this.cctvId = cctv.getId();
+        }
+
+        <T> T stage(Stage stage, Supplier<T> body) {
+            if (finished) {
+                throw new CancellationException("Camera already timed out before " + stage);
+            }
+            long stageStarted = System.nanoTime();
+            try {
+                return body.get();
+            } finally {
+                recordStage(stage, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stageStarted));
+            }
+        }
+
+        void recordStage(Stage stage, long elapsedMillis) {
+            stageMillis.put(stage, elapsedMillis);
+            stageTimers.get(stage).record(elapsedMillis, TimeUnit.MILLISECONDS);
+        }
+
+        CameraResult finish(Count count, Throwable error) {
+            finished = true;
+            long total = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            if (error == null) {
+                return new CameraResult(cctvId, count.personCount(), count.reused(), null, Map.copyOf(stageMillis), total);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            String reason = cause instanceof TimeoutException
+                    ? "Timed out after " + cameraTimeoutMillis + "ms"
+                    : cause.getClass().getSimpleName() + ": " + cause.getMessage();
+            // 한 CCTV 실패가 전체 주기를 중단하지 않도록 결과에만 기록
+            log.error("Failed to analyze CCTV {}: {}", cctvId, reason);
+            return new CameraResult(cctvId, null, false, reason, Map.copyOf(stageMillis), total);
+        }
+    }
+}
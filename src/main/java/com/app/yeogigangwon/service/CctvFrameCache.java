@@ -0,0 +1,153 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.util.JpegEncoder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * 카메라별 최신 프레임 썸네일 캐시 (인메모리)
+ * 분석 파이프라인이 이미 받아 디코딩한 원본 프레임으로 크기별 JPEG을 미리 만들어 두고,
+ * 클라이언트는 카메라 서버 대신 /api/congestion/cctv/{cctvId}/thumbnail 로 받아감
+ * → 카메라 서버는 분석 주기마다 한 번만 요청받고, 응답은 ETag/Cache-Control로 캐시 가능
+ *
+ * 카메라가 304를 응답했거나 프레임을 받지 못한 주기에는 직전 썸네일을 그대로 유지
+ */
+@Component
+public class CctvFrameCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CctvFrameCache.class);
+
+    /** 썸네일 크기 (가로 픽셀, 원본보다 크게 키우지 않음, 큰 것부터 선언) */
+    public enum Size {
+        MEDIUM(640), SMALL(320);
+
+        private final int width;
+
+        Size(int width) {
+            this.width = width;
+        }
+
+        /** 요청 파라미터 → 크기 (모르는 값이면 빈 값) */
+        public static Optional<Size> parse(String value) {
+            try {
+                return Optional.of(valueOf(value.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * 썸네일 한 장 (불변)
+     *
+     * @param jpeg       JPEG 바이트
+     * @param etag       내용 기준 ETag
+     * @param capturedAt 프레임을 받은 분석 주기 시각
+     */
+    public record Thumbnail(byte[] jpeg, String etag, LocalDateTime capturedAt) {}
+
+    private final Map<String, Map<Size, Thumbnail>> frames = new ConcurrentHashMap<>();
+
+    // 썸네일 JPEG 품질 (0~1)
+    @Value("${cctv.thumbnail.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    public CctvFrameCache(MeterRegistry meterRegistry) {
+        Gauge.builder("cctv.thumbnails.bytes", this, CctvFrameCache::totalBytes)
+                .description("메모리에 보관 중인 썸네일 총 바이트")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 새 프레임으로 카메라의 썸네일 교체 (크기별 썸네일을 모두 만든 뒤 한 번에 교체)
+     * 썸네일 생성 실패는 분석에 영향이 없도록 로그만 남기고 직전 썸네일 유지
+     *
+     * @param cctvId     CCTV ID
+     * @param frame      디코딩한 원본 프레임
+     * @param capturedAt 분석 주기 시각
+     */
+    public void update(String cctvId, BufferedImage frame, LocalDateTime capturedAt) {
+        try {
+            Map<Size, Thumbnail> thumbnails = new EnumMap<>(Size.class);
+            BufferedImage source = frame;
+            for (Size size : Size.values()) {
+                // 작은 썸네일은 바로 앞의 큰 썸네일에서 줄임 (원본을 다시 훑지 않음)
+                source = resize(source, size.width);
+                byte[] jpeg = JpegEncoder.encode(source, jpegQuality);
+                thumbnails.put(size, new Thumbnail(jpeg, etag(jpeg), capturedAt));
+            }
+            frames.put(cctvId, thumbnails);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to build thumbnails for CCTV {}: {}", cctvId, e.getMessage());
+        }
+    }
+
+    /**
+     * 카메라의 최신 썸네일 (아직 받은 프레임이 없으면 빈 값)
+     */
+    public Optional<Thumbnail> get(String cctvId, Size size) {
+        Map<Size, Thumbnail> thumbnails = frames.get(cctvId);
+        return thumbnails == null ? Optional.empty() : Optional.ofNullable(thumbnails.get(size));
+    }
+
+    // 가로 폭에 맞춰 비율 유지 축소 (절반씩 여러 번 줄여 한 번에 크게 줄일 때의 계단 현상 방지)
+    private static BufferedImage resize(BufferedImage frame, int maxWidth) {
+        BufferedImage current = frame;
+        while (current.getWidth() / 2 >= maxWidth) {
+            current = draw(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2));
+        }
+        if (current.getWidth() <= maxWidth && current != frame) {
+            return current;
+        }
+        double scale = Math.min(1.0, (double) maxWidth / current.getWidth());
+        int width = Math.max(1, (int) Math.round(current.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(current.getHeight() * scale));
+        return draw(current, width, height);
+    }
+
+    // RGB로 다시 그림 (알파 채널/팔레트 이미지도 JPEG으로 인코딩 가능하게)
+    private static BufferedImage draw(BufferedImage frame, int width, int height) {
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(frame, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static String etag(byte[] jpeg) {
+        CRC32 crc = new CRC32();
+        crc.update(jpeg);
+        return "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(jpeg.length) + "\"";
+    }
+
+    private double totalBytes() {
+        long total = 0;
+        for (Map<Size, Thumbnail> thumbnails : frames.values()) {
+            for (Thumbnail t : thumbnails.values()) {
+                total += t.jpeg().length;
+            }
+        }
+        return total;
+    }
+}
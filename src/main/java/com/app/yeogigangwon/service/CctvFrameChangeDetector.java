@@ -0,0 +1,181 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.util.ImageHash;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CCTV 프레임 변경 감지
+ * 카메라가 이미지를 갱신하지 않았거나(야간/악천후 정지 화면) 거의 같은 프레임이면
+ * YOLO 추론을 생략하고 직전 사람 수를 재사용할 수 있는지 판단
+ *
+ * 판단 순서: 조건부 GET(304) → 내용 해시(SHA-256) 일치 → dHash 해밍 거리 임계값 이하
+ * dHash(9x8 회색조)는 격자 한 칸이 수십 픽셀이라 사람 수 변화를 보지 못하므로,
+ * 비슷한 프레임(SIMILAR) 재사용은 마지막 추론 후 짧은 시간(max-similar-reuse-minutes) 안에서만 허용
+ */
+@Component
+public class CctvFrameChangeDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(CctvFrameChangeDetector.class);
+
+    /** 재사용 사유 */
+    public enum Reason { NOT_MODIFIED, IDENTICAL, SIMILAR }
+
+    /**
+     * 프레임 식별 정보
+     *
+     * @param etag         응답 ETag (없으면 null)
+     * @param lastModified 응답 Last-Modified (없으면 null)
+     * @param sha256       이미지 바이트 해시
+     * @param dHash        지각 해시 (디코딩 실패 시 null)
+     */
+    public record Signature(String etag, String lastModified, String sha256, Long dHash) {}
+
+    // 마지막으로 추론한 프레임과 그 결과
+    private record Known(Signature signature, int personCount, LocalDateTime inferredAt) {}
+
+    private final Map<String, Known> known = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    // 이 해밍 거리 이하면 같은 장면으로 간주 (64비트 중, 사람 몇 명 차이도 놓치지 않도록 작게)
+    @Value("${cctv.frame.dhash-threshold:2}")
+    private int dHashThreshold;
+
+    // 마지막 추론 후 이 시간이 지나면 프레임이 같아도 다시 추론 (분)
+    @Value("${cctv.frame.max-reuse-minutes:120}")
+    private long maxReuseMinutes;
+
+    // 비슷한 프레임(SIMILAR)으로 재사용할 수 있는 최대 시간 (분, 마지막 추론 기준, 대략 최소 분석 간격 한 번)
+    @Value("${cctv.frame.max-similar-reuse-minutes:5}")
+    private long maxSimilarReuseMinutes;
+
+    public CctvFrameChangeDetector(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 조건부 GET 헤더 (직전 응답의 ETag / Last-Modified, 재사용 기한이 지났으면 비움)
+     */
+    public HttpHeaders conditionalHeaders(String cctvId) {
+        HttpHeaders headers = new HttpHeaders();
+        Known prev = reusable(cctvId);
+        if (prev != null) {
+            if (prev.signature().etag() != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, prev.signature().etag());
+            }
+            if (prev.signature().lastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, prev.signature().lastModified());
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * 이미지 식별 정보 계산 (해시 계산은 CPU 작업이라 전처리 단계에서 호출)
+     */
+    public Signature sign(byte[] image, String etag, String lastModified) {
+        return new Signature(etag, lastModified, sha256(image), perceptualHash(image));
+    }
+
+    /**
+     * 이미 디코딩한 이미지가 있으면 그것으로 dHash 계산 (전처리 결과 재사용, 다시 디코딩하지 않음)
+     */
+    public Signature sign(byte[] image, BufferedImage decoded, String etag, String lastModified) {
+        if (decoded == null) {
+            return sign(image, etag, lastModified);
+        }
+        return new Signature(etag, lastModified, sha256(image), ImageHash.dHash(decoded));
+    }
+
+    /**
+     * 304 응답을 받은 카메라의 직전 식별 정보
+     */
+    public Signature lastSignature(String cctvId) {
+        Known prev = known.get(cctvId);
+        return prev != null ? prev.signature() : null;
+    }
+
+    /**
+     * 직전 추론 결과를 재사용할 수 있으면 그 사람 수 반환
+     *
+     * @param cctvId      CCTV ID
+     * @param signature   이번 프레임 식별 정보
+     * @param notModified 카메라가 304를 응답했는지 여부
+     * @return 재사용할 사람 수 (새로 추론해야 하면 null)
+     */
+    public Integer reusableCount(String cctvId, Signature signature, boolean notModified) {
+        Known prev = reusable(cctvId);
+        if (prev == null) {
+            return null;
+        }
+
+        Reason reason = null;
+        if (notModified) {
+            reason = Reason.NOT_MODIFIED;
+        } else if (signature.sha256().equals(prev.signature().sha256())) {
+            reason = Reason.IDENTICAL;
+        } else if (signature.dHash() != null && prev.signature().dHash() != null
+                && !prev.inferredAt().isBefore(LocalDateTime.now().minusMinutes(maxSimilarReuseMinutes))) {
+            int distance = ImageHash.hammingDistance(signature.dHash(), prev.signature().dHash());
+            if (distance <= dHashThreshold) {
+                reason = Reason.SIMILAR;
+            }
+            log.debug("CCTV {} dHash distance: {}", cctvId, distance);
+        }
+        if (reason == null) {
+            return null;
+        }
+
+        meterRegistry.counter("cctv.frames.reused", "reason", reason.name().toLowerCase()).increment();
+        log.info("CCTV {} frame unchanged ({}), reusing person count {}", cctvId, reason, prev.personCount());
+        return prev.personCount();
+    }
+
+    /**
+     * 새로 추론한 프레임과 결과 기록
+     */
+    public void remember(String cctvId, Signature signature, int personCount) {
+        known.put(cctvId, new Known(signature, personCount, LocalDateTime.now()));
+    }
+
+    // 재사용 기한 안의 직전 기록 (없거나 만료면 null)
+    private Known reusable(String cctvId) {
+        Known prev = known.get(cctvId);
+        if (prev == null || prev.inferredAt().isBefore(LocalDateTime.now().minusMinutes(maxReuseMinutes))) {
+            return null;
+        }
+        return prev;
+    }
+
+    private static String sha256(byte[] image) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(image));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다", e);
+        }
+    }
+
+    private static Long perceptualHash(byte[] image) {
+        try {
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image));
+            return decoded != null ? ImageHash.dHash(decoded) : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.util.JpegEncoder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CCTV 프레임 전처리 (추론 전 Java 쪽에서 수행)
+ * 카메라별 ROI(모래사장 영역) 다각형으로 잘라내고 바깥은 회색으로 가린 뒤,
+ * 모델 입력 크기에 맞게 줄여 JPEG으로 다시 인코딩 → 업로드 바이트와 추론 시간 감소
+ *
+ * ROI는 data/cctv_roi.json에 카메라 ID별로 정규화 좌표(0~1) 꼭짓점 목록으로 정의
+ *   { "cctv003": [[0.0, 0.45], [1.0, 0.40], [1.0, 1.0], [0.0, 1.0]] }
+ * 정의가 없는 카메라는 전체 프레임을 쓰고 크기만 줄임
+ */
+@Component
+public class CctvFramePreprocessor {
+
+    private static final Logger log = LoggerFactory.getLogger(CctvFramePreprocessor.class);
+
+    // ROI 바깥을 채울 색 (YOLO letterbox 패딩과 같은 회색)
+    private static final Color MASK_COLOR = new Color(114, 114, 114);
+
+    /**
+     * 전처리 결과
+     *
+     * @param image    모델에 보낼 JPEG 바이트
+     * @param decoded  전처리된 이미지 (변경 감지 해시용, 디코딩 실패 시 null)
+     * @param source   디코딩한 원본 프레임 (썸네일용, 디코딩 실패 시 null)
+     * @param roiRatio 실제로 분석하는 영역 비율 (ROI 면적 / 전체 프레임 면적, ROI가 없으면 1.0)
+     */
+    public record Result(byte[] image, BufferedImage decoded, BufferedImage source, double roiRatio) {}
+
+    // 카메라 ID → ROI 다각형 (정규화 좌표)과 그 면적 비율
+    private record Roi(Path2D.Double polygon, double ratio) {}
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, Roi> rois = new HashMap<>();
+
+    // 모델 입력 크기 (긴 변 기준, YOLO 기본 640)
+    @Value("${cctv.preprocess.target-size:640}")
+    private int targetSize;
+
+    // 다시 인코딩할 JPEG 품질 (0~1)
+    @Value("${cctv.preprocess.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @PostConstruct
+    public void load() throws IOException {
+        ClassPathResource resource = new ClassPathResource("data/cctv_roi.json");
+        if (!resource.exists()) return;
+
+        Map<String, List<List<Double>>> raw;
+        try (InputStream in = resource.getInputStream()) {
+            raw = mapper.readValue(in, new TypeReference<Map<String, List<List<Double>>>>() {});
+        }
+        raw.forEach((cctvId, points) -> {
+            if (points == null || points.size() < 3) {
+                log.warn("Ignoring ROI for {}: needs at least 3 points", cctvId);
+                return;
+            }
+            if (!points.stream().allMatch(CctvFramePreprocessor::isVertex)) {
+                log.warn("Ignoring ROI for {}: every point must be [x, y] with finite numbers", cctvId);
+                return;
+            }
+            Roi roi = toRoi(points);
+            if (roi.ratio() <= 0) {
+                log.warn("Ignoring ROI for {}: polygon has no area", cctvId);
+                return;
+            }
+            rois.put(cctvId, roi);
+        });
+        log.info("Loaded CCTV ROI polygons for {} cameras", rois.size());
+    }
+
+    /**
+     * 카메라에 설정된 ROI 면적 비율 (ROI가 없으면 1.0)
+     */
+    public double roiRatio(String cctvId) {
+        Roi roi = rois.get(cctvId);
+        return roi == null ? 1.0 : roi.ratio();
+    }
+
+    /**
+     * ROI 잘라내기 → 가리기 → 축소 → JPEG 재인코딩
+     * 디코딩할 수 없는 이미지는 원본을 그대로 보냄 (ROI 비율 1.0)
+     */
+    public Result process(String cctvId, byte[] original) {
+        BufferedImage source;
+        try {
+            source = ImageIO.read(new ByteArrayInputStream(original));
+        } catch (IOException | RuntimeException e) {
+            source = null;
+        }
+        if (source == null) {
+            log.debug("CCTV {} frame could not be decoded, sending original bytes", cctvId);
+            return new Result(original, null, null, 1.0);
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        Roi roi = rois.get(cctvId);
+
+        // 정규화 좌표 → 픽셀 좌표 다각형, 그 경계 상자를 잘라낼 영역으로
+        Path2D polygon = null;
+        Rectangle2D crop = new Rectangle2D.Double(0, 0, width, height);
+        if (roi != null) {
+            polygon = (Path2D) roi.polygon().createTransformedShape(AffineTransform.getScaleInstance(width, height));
+            crop = polygon.getBounds2D().createIntersection(crop);
+        }
+
+        // 긴 변이 targetSize를 넘으면 비율을 유지한 채 축소 (작은 이미지는 키우지 않음)
+        double scale = Math.min(1.0, (double) targetSize / Math.max(crop.getWidth(), crop.getHeight()));
+        int outWidth = Math.max(1, (int) Math.round(crop.getWidth() * scale));
+        int outHeight = Math.max(1, (int) Math.round(crop.getHeight() * scale));
+
+        BufferedImage out = new BufferedImage(outWidth, outHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(MASK_COLOR);
+            g.fillRect(0, 0, outWidth, outHeight);
+
+            // 원본 픽셀 좌표 → 출력 좌표 (잘라낸 영역 원점 이동 후 축소)
+            AffineTransform toOutput = AffineTransform.getScaleInstance(scale, scale);
+            toOutput.translate(-crop.getX(), -crop.getY());
+            if (polygon != null) {
+                g.setClip(toOutput.createTransformedShape(polygon));
+            }
+            g.drawImage(source, toOutput, null);
+        } finally {
+            g.dispose();
+        }
+
+        try {
+            return new Result(JpegEncoder.encode(out, jpegQuality), out, source, roi == null ? 1.0 : roi.ratio());
+        } catch (IOException e) {
+            log.warn("CCTV {} frame re-encode failed, sending original bytes: {}", cctvId, e.getMessage());
+            return new Result(original, source, source, 1.0);
+        }
+    }
+
+    // 정규화 좌표 목록 → 다각형 + 면적 비율 (신발끈 공식, 0~1로 자름)
+    private static Roi toRoi(List<List<Double>> points) {
+        Path2D.Double polygon = new Path2D.Double();
+        double twiceArea = 0;
+        for (int i = 0; i < points.size(); i++) {
+            double x = clamp(points.get(i).get(0));
+            double y = clamp(points.get(i).get(1));
+            List<Double> next = points.get((i + 1) % points.size());
+            twiceArea += x * clamp(next.get(1)) - clamp(next.get(0)) * y;
+            if (i == 0) {
+                polygon.moveTo(x, y);
+            } else {
+                polygon.lineTo(x, y);
+            }
+        }
+        polygon.closePath();
+        return new Roi(polygon, Math.min(1.0, Math.abs(twiceArea) / 2));
+    }
+
+    // 꼭짓점 하나가 유한한 숫자 두 개로 된 [x, y]인지
+    private static boolean isVertex(List<Double> point) {
+        return point != null && point.size() == 2
+                && point.get(0) != null && Double.isFinite(point.get(0))
+                && point.get(1) != null && Double.isFinite(point.get(1));
+    }
+
+    private static double clamp(double v) {
+        return Math.max(0.0, Math.min(1.0, v));
+    }
+}
@@ -0,0 +1,150 @@
+package com.app.yeogigangwon.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * YOLO 관측 수집 큐
+ * 엣지 장비가 보낸 관측을 해변별 버퍼에 모았다가 작업 스레드가 해변 단위로 한꺼번에 실시간 상태에 반영
+ *
+ * - 해변별 버퍼는 관측 시각 순으로 정렬, 같은 시각 관측은 마지막 것만 남김 (latest-wins)
+ * - 해변당 버퍼가 가득 차면 가장 오래된 관측부터 버림 (몰린 관측은 최신 위주로 합쳐짐)
+ * - 전체 대기 수가 한도에 닿으면 새 관측을 거부하고, 호출자는 대기 수를 응답 헤더로 받아 전송 속도를 줄임
+ * - 해변마다 반영 작업은 한 번에 하나만 돌아 EMA가 관측 시각 순서대로 적용됨
+ */
+@Service
+public class CongestionIngestQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(CongestionIngestQueue.class);
+
+    /**
+     * 수집 관측 한 건
+     *
+     * @param beachId      해변 ID
+     * @param persons      탐지된 사람 수
+     * @param roiRatio     ROI 비율 (null이면 1.0)
+     * @param capturedAtMs 관측 시각(밀리초)
+     */
+    public record Sample(String beachId, int persons, Double roiRatio, long capturedAtMs) {}
+
+    /**
+     * 수집 결과
+     *
+     * @param accepted 큐에 들어간 관측 수
+     * @param rejected 큐가 가득 차 거부된 관측 수
+     * @param depth    현재 대기 관측 수
+     * @param capacity 대기 관측 한도
+     */
+    public record Admission(int accepted, int rejected, int depth, int capacity) {}
+
+    // 해변 한 곳의 대기 관측 (관측 시각 → 관측)
+    private static class BeachBuffer {
+        final TreeMap<Long, Sample> samples = new TreeMap<>();
+        boolean scheduled; // 반영 작업이 예약/실행 중인지 여부 (this로 동기화)
+    }
+
+    private final RealTimeCongestionService realTimeCongestionService;
+    private final ThreadPoolTaskExecutor congestionIngestExecutor;
+    private final Map<String, BeachBuffer> buffers = new ConcurrentHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter coalesced;
+
+    // 전체 대기 관측 한도
+    private final int capacity;
+
+    // 해변당 대기 관측 한도 (넘으면 오래된 것부터 버림)
+    @Value("${congestion.ingest.per-beach-capacity:256}")
+    private int perBeachCapacity;
+
+    public CongestionIngestQueue(RealTimeCongestionService realTimeCongestionService,
+                                 ThreadPoolTaskExecutor congestionIngestExecutor,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${congestion.ingest.capacity:10000}") int capacity) {
+        this.realTimeCongestionService = realTimeCongestionService;
+        this.congestionIngestExecutor = congestionIngestExecutor;
+        this.capacity = capacity;
+
+        Gauge.builder("congestion.ingest.depth", depth, AtomicInteger::get)
+                .description("반영 대기 중인 YOLO 관측 수")
+                .register(meterRegistry);
+        this.accepted = meterRegistry.counter("congestion.ingest.samples", "result", "accepted");
+        this.rejected = meterRegistry.counter("congestion.ingest.samples", "result", "rejected");
+        this.coalesced = meterRegistry.counter("congestion.ingest.samples", "result", "coalesced");
+    }
+
+    /**
+     * 관측 목록을 큐에 넣고 바로 반환
+     */
+    public Admission offer(List<Sample> samples) {
+        int ok = 0, refused = 0;
+        for (Sample sample : samples) {
+            if (depth.get() >= capacity) {
+                refused++;
+                continue;
+            }
+            BeachBuffer buffer = buffers.computeIfAbsent(sample.beachId(), id -> new BeachBuffer());
+            boolean schedule;
+            synchronized (buffer) {
+                if (buffer.samples.put(sample.capturedAtMs(), sample) == null) {
+                    depth.incrementAndGet();
+                } else {
+                    coalesced.increment(); // 같은 시각 관측 교체
+                }
+                if (buffer.samples.size() > perBeachCapacity) {
+                    buffer.samples.pollFirstEntry();
+                    depth.decrementAndGet();
+                    coalesced.increment();
+                }
+                schedule = !buffer.scheduled;
+                buffer.scheduled = true;
+            }
+            if (schedule) {
+                congestionIngestExecutor.execute(() -> drain(sample.beachId(), buffer));
+            }
+            ok++;
+        }
+        accepted.increment(ok);
+        rejected.increment(refused);
+        return new Admission(ok, refused, depth.get(), capacity);
+    }
+
+    // 해변 버퍼를 비워 실시간 상태에 한 번에 반영 (반영 중 새로 들어온 관측은 다음 반복에서 처리)
+    private void drain(String beachId, BeachBuffer buffer) {
+        while (true) {
+            List<RealTimeCongestionService.Observation> batch;
+            synchronized (buffer) {
+                if (buffer.samples.isEmpty()) {
+                    buffer.scheduled = false;
+                    return;
+                }
+                batch = new ArrayList<>(buffer.samples.size());
+                for (Sample s : buffer.samples.values()) {
+                    batch.add(new RealTimeCongestionService.Observation(s.persons(), s.roiRatio(), s.capturedAtMs()));
+                }
+                buffer.samples.clear();
+            }
+            depth.addAndGet(-batch.size());
+            try {
+                realTimeCongestionService.updateAll(beachId, batch);
+            } catch (Exception e) {
+                log.error("Failed to apply {} YOLO samples for {}: {}", batch.size(), beachId, e.getMessage());
+            }
+        }
+    }
+}
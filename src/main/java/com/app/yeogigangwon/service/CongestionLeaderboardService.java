@@ -0,0 +1,242 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.dto.CongestionDto;
+import com.app.yeogigangwon.event.BeachCongestionChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * "지금 한산한 해변" 순위 (출처별, 인메모리)
+ * BeachCongestionChangedEvent를 받을 때마다 해당 해변 한 곳만 순위에서 빼고 다시 넣음 → 조회 시 재계산/정렬 없음
+ *
+ * 출처별 순위 기준
+ * - cctv: 기준 혼잡 레벨(0~1), "정보없음"이 되면 순위에서 제외
+ * - realtime: YOLO 실시간 혼잡도 EMA(명/㎡), 마지막 관측이 TTL보다 오래되면 순위에서 제외
+ *
+ * 시/군은 cctv는 CCTV 목록, realtime은 해변 메타데이터(beach_area_map.json의 region)에서 가져옴
+ *
+ * 해변 ID → 항목 색인과 점수순 정렬 집합(전체 + 시/군별)을 함께 유지해
+ * 갱신은 O(log n), 상위 N개 조회는 정렬된 집합 앞에서 N개를 읽는 O(log n + N)
+ */
+@Service
+public class CongestionLeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(CongestionLeaderboardService.class);
+
+    // 대한민국 표준시 타임존 상수
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    /** 순위 출처 */
+    public static final String CCTV = "cctv";
+    public static final String REALTIME = "realtime";
+
+    /**
+     * 순위 항목 (불변)
+     *
+     * @param beachId   해변 ID
+     * @param region    시/군 (모르면 null)
+     * @param status    혼잡 상태
+     * @param score     순위 기준 값 (낮을수록 한산)
+     * @param version   갱신 순서 (더 오래된 값이 늦게 도착하면 무시)
+     * @param updatedAt 갱신 시각
+     */
+    private record Entry(String beachId, String region, String status, double score, long version,
+                         LocalDateTime updatedAt) {}
+
+    // 점수 오름차순, 같으면 해변 ID 순 (집합 안에서 항목이 유일하도록)
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingDouble(Entry::score).thenComparing(Entry::beachId);
+
+    private final RealTimeCongestionService realTimeCongestionService;
+    private final AreaMapService areaMapService;
+    private final Map<String, Board> boards = Map.of(CCTV, new Board(), REALTIME, new Board());
+
+    // CCTV ID → 시/군, CCTV ID → 해변 이름 (CCTV 목록 기준)
+    private final Map<String, String> regions = new HashMap<>();
+    private final Map<String, String> names = new HashMap<>();
+
+    // 실시간 순위 유지 시간 (마지막 관측 기준, 밀리초)
+    private final long realtimeTtlMillis;
+
+    public CongestionLeaderboardService(CongestionService congestionService,
+                                        RealTimeCongestionService realTimeCongestionService,
+                                        AreaMapService areaMapService,
+                                        @Value("${congestion.leaderboard.realtime-ttl-minutes:30}") long realtimeTtlMinutes) {
+        this.realTimeCongestionService = realTimeCongestionService;
+        this.areaMapService = areaMapService;
+        this.realtimeTtlMillis = realtimeTtlMinutes * 60_000L;
+        for (CongestionDto.CctvInfo cctv : congestionService.getCctvList()) {
+            regions.put(cctv.getId(), cctv.getLocation());
+            names.put(cctv.getId(), cctv.getBeachName());
+        }
+    }
+
+    /**
+     * 시작 시 재시작 전 실시간 상태로 순위 채움 (CCTV는 첫 상태 스냅샷이 모든 해변을 알림)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        realTimeCongestionService.snapshot().forEach(this::putRealtime);
+        log.info("Congestion leaderboard seeded with {} realtime beaches", boards.get(REALTIME).size());
+    }
+
+    /**
+     * 해변 한 곳의 혼잡도 변경 반영
+     */
+    @EventListener
+    public void onChanged(BeachCongestionChangedEvent event) {
+        if (REALTIME.equals(event.source())) {
+            // 이벤트 값 대신 현재 상태를 읽어 동시 갱신 중 늦게 도착한 이벤트가 최신 값을 덮지 않게 함
+            putRealtime(event.beachId(), realTimeCongestionService.get(event.beachId()));
+            return;
+        }
+        Board board = boards.get(CCTV);
+        if (event.referenceCrowdLevel() == null) {
+            board.remove(event.beachId());  // 정보없음
+            return;
+        }
+        long version = event.changedAt().atZone(KST).toInstant().toEpochMilli();
+        board.put(new Entry(event.beachId(), regions.get(event.beachId()), event.level(),
+                event.referenceCrowdLevel(), version, event.changedAt()));
+    }
+
+    /**
+     * 마지막 관측이 TTL보다 오래된 실시간 해변을 순위에서 제외 (관측이 끊긴 해변이 계속 한산한 곳으로 남지 않게)
+     */
+    @Scheduled(fixedDelay = 60 * 1000)
+    public void evictStaleRealtime() {
+        int evicted = boards.get(REALTIME).removeOlderThan(realtimeCutoff());
+        if (evicted > 0) {
+            log.info("Evicted {} stale realtime beaches from the congestion leaderboard", evicted);
+        }
+    }
+
+    /**
+     * 한산한 순 상위 N개
+     *
+     * @param source cctv 또는 realtime
+     * @param region 시/군 (null이면 전체)
+     * @param limit  최대 개수
+     * @return 순위 목록 (모르는 출처면 null)
+     */
+    public List<CongestionDto.LeaderboardEntry> top(String source, String region, int limit) {
+        Board board = boards.get(source);
+        if (board == null) {
+            return null;
+        }
+        // 정리 주기 사이에 만료된 항목도 내려주지 않음
+        long cutoff = REALTIME.equals(source) ? realtimeCutoff() : Long.MIN_VALUE;
+        List<CongestionDto.LeaderboardEntry> result = new ArrayList<>(Math.min(limit, board.size()));
+        for (Entry e : board.ranked(region)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (e.version() < cutoff) {
+                continue;
+            }
+            result.add(new CongestionDto.LeaderboardEntry(result.size() + 1, e.beachId(),
+                    names.getOrDefault(e.beachId(), e.beachId()), e.region(), e.status(), e.score(), e.updatedAt()));
+        }
+        return result;
+    }
+
+    private void putRealtime(String beachId, RealTimeCongestionService.State st) {
+        if (st.lastSampleMs() < realtimeCutoff()) {
+            return;  // 관측이 반영된 적 없는 초기 상태이거나 이미 만료된 관측
+        }
+        LocalDateTime updatedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(st.lastSampleMs()), KST);
+        boards.get(REALTIME).put(new Entry(beachId, areaMapService.findRegion(beachId).orElse(null), st.level(),
+                st.emaDensity(), st.lastSampleMs(), updatedAt));
+    }
+
+    private long realtimeCutoff() {
+        return Math.max(1, System.currentTimeMillis() - realtimeTtlMillis);
+    }
+
+    /**
+     * 출처 하나의 순위
+     * 같은 해변의 교체는 색인의 compute로 직렬화하고, 조회는 잠금 없이 정렬 집합을 앞에서부터 읽음
+     * (교체 도중 읽으면 그 해변 하나가 잠깐 빠질 수 있지만 중복되거나 순서가 어긋나지는 않음)
+     */
+    private static class Board {
+        private final Map<String, Entry> index = new ConcurrentHashMap<>();
+        private final NavigableSet<Entry> all = new ConcurrentSkipListSet<>(ORDER);
+        private final Map<String, NavigableSet<Entry>> byRegion = new ConcurrentHashMap<>();
+
+        void put(Entry entry) {
+            index.compute(entry.beachId(), (id, old) -> {
+                if (old != null) {
+                    if (old.version() > entry.version()) {
+                        return old;
+                    }
+                    unlink(old);
+                }
+                all.add(entry);
+                if (entry.region() != null) {
+                    byRegion.computeIfAbsent(entry.region(), r -> new ConcurrentSkipListSet<>(ORDER)).add(entry);
+                }
+                return entry;
+            });
+        }
+
+        void remove(String beachId) {
+            index.computeIfPresent(beachId, (id, old) -> {
+                unlink(old);
+                return null;
+            });
+        }
+
+        // version이 cutoff보다 작은 항목 제거 (확인과 제거 사이에 새 값이 들어오면 그 값은 남김)
+        int removeOlderThan(long cutoff) {
+            int[] removed = {0};
+            for (String beachId : index.keySet()) {
+                index.computeIfPresent(beachId, (id, old) -> {
+                    if (old.version() >= cutoff) {
+                        return old;
+                    }
+                    unlink(old);
+                    removed[0]++;
+                    return null;
+                });
+            }
+            return removed[0];
+        }
+
+        NavigableSet<Entry> ranked(String region) {
+            if (region == null) {
+                return all;
+            }
+            NavigableSet<Entry> set = byRegion.get(region);
+            return set != null ? set : Collections.emptyNavigableSet();
+        }
+
+        int size() {
+            return index.size();
+        }
+
+        private void unlink(Entry entry) {
+            all.remove(entry);
+            if (entry.region() != null) {
+                byRegion.get(entry.region()).remove(entry);
+            }
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package com.app.yeogigangwon.service;
 
-import com.app.yeogigangwon.domain.CongestionDomain;
+import com.app.yeogigangwon.domain.Beach;
 import com.app.yeogigangwon.dto.CongestionDto;
-import com.app.yeogigangwon.repository.CongestionRepository;
+import com.app.yeogigangwon.event.CrowdCycleCompletedEvent;
+import com.app.yeogigangwon.repository.BeachRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
@@ -19,7 +22,6 @@ import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
-import java.util.Base64;
 
 @Service
 @RequiredArgsConstructor
@@ -28,13 +30,18 @@ public class CongestionService {
     // 서비스 동작 로그 출력용
     private static final Logger log = LoggerFactory.getLogger(CongestionService.class);
 
-    // DB 접근을 위한 JPA 레포지토리
-    private final CongestionRepository congestionRepository;
-    // Python API 호출 및 이미지 수집을 위한 HTTP 클라이언트
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    @Value("${python.api.url}")
-    private String pythonApiUrl;
+    // 해변별 최근 24시간 사람 수 윈도우
+    private final CrowdWindowStore crowdWindowStore;
+    // CCTV 이미지 수집 → Python 분석 → 저장 파이프라인
+    private final CctvCapturePipeline cctvCapturePipeline;
+    // 분석 주기 완료 이벤트 발행 (상태 스냅샷 갱신 등)
+    private final ApplicationEventPublisher eventPublisher;
+    // 해변 메타데이터 (crowd_records.beach_id가 참조)
+    private final BeachRepository beachRepository;
+    // 카메라별 분석 간격 계획
+    private final CaptureIntervalPlanner captureIntervalPlanner;
+    // 분석 주기 실행 스레드 (스케줄러 스레드가 주기 동안 막히지 않도록)
+    private final ThreadPoolTaskExecutor cctvCycleExecutor;
 
     // 분석 대상 CCTV 메타데이터 목록
     private List<CongestionDto.CctvInfo> cctvList;
@@ -42,117 +49,135 @@ public class CongestionService {
     private static final int FALLBACK_DEN = 20;
     private static final int MIN_SAMPLES   = 12;
 
+    // 마지막 기록이 이 시간(분)보다 오래되면 "정보없음"으로 표시 (카메라 분석 간격이 길면 간격의 2배)
+    public static final int STALE_AFTER_MINUTES = 30;
+
     // 대한민국 표준시 타임존 상수
     private static final ZoneId KST = ZoneId.of("Asia/Seoul");
 
     @PostConstruct
     public void init() {
-        cctvList = Arrays.asList(
-                new CongestionDto.CctvInfo("cctv001", "남항진", "강릉시", "http://220.95.232.18/camera/4_0.jpg"),
-                new CongestionDto.CctvInfo("cctv002", "강문",   "강릉시", "http://220.95.232.18/camera/51_0.jpg"),
-                new CongestionDto.CctvInfo("cctv003", "경포",   "강릉시", "http://220.95.232.18/camera/52_0.jpg"),
-                new CongestionDto.CctvInfo("cctv004", "소돌",   "강릉시", "http://220.95.232.18/camera/53_0.jpg"),
-                new CongestionDto.CctvInfo("cctv005", "염전",   "강릉시", "http://220.95.232.18/camera/54_0.jpg"),
-                new CongestionDto.CctvInfo("cctv006", "영진",   "강릉시", "http://220.95.232.18/camera/55_0.jpg"),
-                new CongestionDto.CctvInfo("cctv007", "정동진", "강릉시", "http://220.95.232.18/camera/56_0.jpg"),
-                new CongestionDto.CctvInfo("cctv008", "공현진", "고성군", "http://220.95.232.18/camera/57_0.jpg"),
-                new CongestionDto.CctvInfo("cctv009", "교암",   "고성군", "http://220.95.232.18/camera/58_0.jpg"),
-                new CongestionDto.CctvInfo("cctv010", "봉포",   "속초시", "http://220.95.232.18/camera/59_0.jpg"),
-                new CongestionDto.CctvInfo("cctv011", "초도",   "고성군", "http://220.95.232.18/camera/60_0.jpg"),
-                new CongestionDto.CctvInfo("cctv012", "영랑",   "속초시", "http://220.95.232.18/camera/69_0.jpg"),
-                new CongestionDto.CctvInfo("cctv013", "하맹방", "삼척시", "http://220.95.232.18/camera/62_0.jpg"),
-                new CongestionDto.CctvInfo("cctv014", "원평",   "삼척시", "http://220.95.232.18/camera/65_0.jpg"),
-                new CongestionDto.CctvInfo("cctv015", "문암·초곡", "삼척시", "http://220.95.232.18/camera/88_0.jpg")
+        cctvList = List.of(
+                new CongestionDto.CctvInfo("cctv001", "남항진", "강릉시", "http://220.95.232.18/camera/4_0.jpg", 37.7712, 128.9497),
+                new CongestionDto.CctvInfo("cctv002", "강문",   "강릉시", "http://220.95.232.18/camera/51_0.jpg", 37.7955, 128.9190),
+                new CongestionDto.CctvInfo("cctv003", "경포",   "강릉시", "http://220.95.232.18/camera/52_0.jpg", 37.8055, 128.9080),
+                new CongestionDto.CctvInfo("cctv004", "소돌",   "강릉시", "http://220.95.232.18/camera/53_0.jpg", 37.8890, 128.8280),
+                new CongestionDto.CctvInfo("cctv005", "염전",   "강릉시", "http://220.95.232.18/camera/54_0.jpg", 37.8650, 128.8400),
+                new CongestionDto.CctvInfo("cctv006", "영진",   "강릉시", "http://220.95.232.18/camera/55_0.jpg", 37.8480, 128.8450),
+                new CongestionDto.CctvInfo("cctv007", "정동진", "강릉시", "http://220.95.232.18/camera/56_0.jpg", 37.6910, 129.0340),
+                new CongestionDto.CctvInfo("cctv008", "공현진", "고성군", "http://220.95.232.18/camera/57_0.jpg", 38.3600, 128.5120),
+                new CongestionDto.CctvInfo("cctv009", "교암",   "고성군", "http://220.95.232.18/camera/58_0.jpg", 38.2740, 128.5630),
+                new CongestionDto.CctvInfo("cctv010", "봉포",   "속초시", "http://220.95.232.18/camera/59_0.jpg", 38.2500, 128.5660),
+                new CongestionDto.CctvInfo("cctv011", "초도",   "고성군", "http://220.95.232.18/camera/60_0.jpg", 38.4720, 128.4400),
+                new CongestionDto.CctvInfo("cctv012", "영랑",   "속초시", "http://220.95.232.18/camera/69_0.jpg", 38.2200, 128.5960),
+                new CongestionDto.CctvInfo("cctv013", "하맹방", "삼척시", "http://220.95.232.18/camera/62_0.jpg", 37.4030, 129.2150),
+                new CongestionDto.CctvInfo("cctv014", "원평",   "삼척시", "http://220.95.232.18/camera/65_0.jpg", 37.3650, 129.2450),
+                new CongestionDto.CctvInfo("cctv015", "문암·초곡", "삼척시", "http://220.95.232.18/camera/88_0.jpg", 37.3190, 129.2680)
         );
     }
 
-    @Scheduled(cron = "0 */15 * * * *", zone = "Asia/Seoul")
+    /**
+     * 시작 시 CCTV 목록의 해변 이름/지역을 beaches 테이블에 반영
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncBeaches() {
+        try {
+            List<Beach> beaches = cctvList.stream()
+                    .map(cctv -> new Beach(cctv.getId(), cctv.getBeachName(), cctv.getLocation()))
+                    .toList();
+            beachRepository.saveAll(beaches);
+            log.info("Synced {} beaches", beaches.size());
+        } catch (Exception e) {
+            log.error("Failed to sync beaches: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 분석 대상 CCTV 목록 (위치 정보 포함, 불변)
+     */
+    public List<CongestionDto.CctvInfo> getCctvList() {
+        return cctvList;
+    }
+
+    /**
+     * 매분 분석 주기를 전용 스레드에 넘김
+     * 주기는 카메라 제한 시간(최대 60초)까지 걸릴 수 있어 스케줄러 스레드에서 돌리면 SSE heartbeat 등 다른 @Scheduled 작업이 밀림
+     * 이전 주기가 아직 실행 중이면 이번 분은 건너뜀 (밀린 카메라는 다음 분에 due로 다시 잡힘)
+     */
+    @Scheduled(cron = "0 * * * * *", zone = "Asia/Seoul")
     public void analyzeAndSaveCongestionData() {
-        // 15분마다 모든 CCTV에 대해 혼잡도 분석을 실행
-        LocalDateTime now = LocalDateTime.now(KST);
-        int currentHour = now.getHour();
+        try {
+            cctvCycleExecutor.execute(() -> {
+                try {
+                    runAnalysisCycle();
+                } catch (RuntimeException e) {
+                    log.error("Crowd analysis cycle failed: {}", e.getMessage(), e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("Previous crowd analysis cycle is still running, skipping this tick");
+        }
+    }
 
-        // 22:00 ~ 06:00 (심야 시간) 사이에는 분석하지 않음
-        if (currentHour >= 22 || currentHour < 6) {
-            log.info("Crowd analysis skipped during night hours.");
+    private void runAnalysisCycle() {
+        // 다음 분석 시각이 된 CCTV만 분석 (카메라별 간격은 CaptureIntervalPlanner가 결정, 심야에는 없음)
+        LocalDateTime now = LocalDateTime.now(KST);
+        List<CongestionDto.CctvInfo> due = captureIntervalPlanner.dueCameras(cctvList, now);
+        if (due.isEmpty()) {
             return;
         }
 
-        log.info("Starting crowd analysis for all CCTV feeds...");
-        for (CongestionDto.CctvInfo cctv : cctvList) {
-            try {
-                // 1) CCTV 이미지 수집
-                byte[] imageBytes = restTemplate.getForObject(cctv.getCctvUrl(), byte[].class);
-                if (imageBytes == null || imageBytes.length == 0) {
-                    log.warn("Empty image for CCTV {}", cctv.getId());
-                    continue;
-                }
-                String base64Image = Base64.getEncoder().encodeToString(imageBytes);
-
-                // 2) Python API 호출 (이미지 Base64 전송 → 사람 수 응답 수신)
-                Map<String, String> requestBody = new HashMap<>();
-                requestBody.put("image", base64Image);
-
-                ResponseEntity<CongestionDto.CrowdAnalysisResult> response =
-                        restTemplate.postForEntity(
-                                pythonApiUrl + "/analyze_crowd",
-                                requestBody,
-                                CongestionDto.CrowdAnalysisResult.class
-                        );
-
-                // 3) 응답 검증 및 DB 저장
-                if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                    int personCount = response.getBody().getPersonCount();
-                    log.info("CCTV ID: {}, Detected Persons: {}", cctv.getId(), personCount);
-
-                    // MySQL 저장
-                    CongestionDomain record = new CongestionDomain();
-                    record.setBeachId(cctv.getId());
-                    record.setBeachName(cctv.getBeachName());
-                    record.setPersonCount(personCount);
-                    record.setTimestamp(now);
-                    congestionRepository.save(record);
-                } else {
-                    log.error("Python API failure for CCTV {}", cctv.getId());
-                }
-            } catch (Exception e) {
-                // 한 CCTV 실패가 전체 스케줄을 중단하지 않도록 예외를 캡처
-                log.error("Failed to analyze CCTV {}: {}", cctv.getId(), e.getMessage());
-            }
+        log.info("Starting crowd analysis for {} due CCTV feeds...", due.size());
+        // 카메라별로 수집 → 전처리 → 추론 → 저장을 병렬 파이프라인에서 실행 (카메라별 타임아웃/실패 격리)
+        CctvCapturePipeline.CycleReport report = cctvCapturePipeline.runCycle(due, now);
+
+        CctvCapturePipeline.CameraResult slowest = report.slowest();
+        log.info("Crowd analysis finished: {}/{} succeeded ({} reused unchanged frames), {} failed, {} ms (slowest: {} {} ms)",
+                report.succeeded(), report.cameras().size(), report.reused(), report.failed(), report.elapsedMillis(),
+                slowest != null ? slowest.cctvId() : "-", slowest != null ? slowest.totalMillis() : 0);
+        for (CctvCapturePipeline.CameraResult result : report.cameras()) {
+            log.debug("CCTV {} stages: {} (total {} ms)", result.cctvId(), result.stageMillis(), result.totalMillis());
+            // 결과의 변동성/임계치 근접도로 다음 분석 시각 결정
+            Thresholds th = deriveThresholds(crowdWindowStore.snapshot(result.cctvId(), now));
+            captureIntervalPlanner.observe(result.cctvId(), result.personCount(), result.frameReused(),
+                    th.tRelax(), th.tBusy(), now);
         }
+
+        eventPublisher.publishEvent(new CrowdCycleCompletedEvent(now, report.succeeded(), report.failed()));
+    }
+
+    /**
+     * 카메라의 "정보없음" 전환 기준 (분)
+     * 분석 간격이 길어진 카메라는 다음 분석 전에 정보없음이 되지 않도록 간격의 2배까지 허용
+     */
+    public long staleAfterMinutes(String cctvId) {
+        return Math.max(STALE_AFTER_MINUTES, Math.round(captureIntervalPlanner.effectiveIntervalMinutes(cctvId) * 2));
     }
 
     public List<CongestionDto.CrowdStatus> getCrowdStatus() {
         // 최근 24시간 데이터를 기준으로 각 해변의 상태를 계산하여 응답
         LocalDateTime now = LocalDateTime.now(KST);
-        LocalDateTime twentyFourHoursAgo = now.minusHours(24);
         List<CongestionDto.CrowdStatus> statuses = new ArrayList<>();
 
         for (CongestionDto.CctvInfo cctv : cctvList) {
-            // 최신순 정렬로 최근 기록을 가져옴
-            List<CongestionDomain> recentRecords =
-                    congestionRepository.findByBeachIdAndTimestampBetweenOrderByTimestampDesc(
-                            cctv.getId(), twentyFourHoursAgo, now
-                    );
+            // 인메모리 24시간 윈도우에서 최근 기록/퍼센타일 조회 (DB 조회 없음)
+            CrowdWindowStore.Snapshot window = crowdWindowStore.snapshot(cctv.getId(), now);
 
             // 데이터 끊김 체크
-            if (recentRecords.isEmpty()
-                    || recentRecords.get(0).getTimestamp().isBefore(now.minusMinutes(30))) {
+            if (window.sampleCount() == 0
+                    || window.latestAt().isBefore(now.minusMinutes(staleAfterMinutes(cctv.getId())))) {
                 statuses.add(new CongestionDto.CrowdStatus(
                         cctv.getId(), cctv.getBeachName(), "정보없음", 0, null
                 ));
                 continue; // 등급/스코어 계산 건너뜀
             }
 
-            int latestCrowd = recentRecords.isEmpty() ? 0 : recentRecords.get(0).getPersonCount();
-            List<Integer> recentCounts = new ArrayList<>();
-            for (CongestionDomain r : recentRecords) recentCounts.add(r.getPersonCount());
+            int latestCrowd = window.latestCount();
 
             // 1) 스코어(0~1): 데이터 충분하면 latest / p90, 부족하면 latest / FALLBACK_DEN
             double baseScore;
-            if (recentCounts.size() >= MIN_SAMPLES) {
-                int p90 = percentileInt(recentCounts, 90);
-                baseScore = safeRatio(latestCrowd, p90);
+            if (window.sampleCount() >= MIN_SAMPLES) {
+                baseScore = safeRatio(latestCrowd, window.p90());
             } else {
                 baseScore = safeRatio(latestCrowd, FALLBACK_DEN);
             }
@@ -165,7 +190,7 @@ public class CongestionService {
                     .doubleValue();
 
             // 3) 등급 산정: 적응형 임계치(데이터 충분) or 정적 기본 임계치(부족)
-            String status = determineStatus(latestCrowd, recentCounts);
+            String status = determineStatus(latestCrowd, window);
 
             // 최종 상태를 응답 리스트에 추가
             statuses.add(new CongestionDto.CrowdStatus(
@@ -188,16 +213,6 @@ public class CongestionService {
         return Math.max(0.0, Math.min(1.0, v));
     }
 
-    // 정수 리스트의 p-퍼센타일 값을 반환
-    private int percentileInt(List<Integer> xs, double p) {
-        if (xs == null || xs.isEmpty()) return 0;
-        List<Integer> sorted = new ArrayList<>(xs);
-        Collections.sort(sorted);
-        int idx = (int) Math.ceil(p / 100.0 * sorted.size()) - 1;
-        idx = Math.max(0, Math.min(idx, sorted.size() - 1));
-        return sorted.get(idx);
-    }
-
     // 등급 임계치 컨테이너(record
     private record Thresholds(int tRelax, int tBusy) {}
 
@@ -206,15 +221,15 @@ public class CongestionService {
      * - 데이터 충분: tRelax = p50(중위수) 최소 6, tBusy = p90 최소 16
      * - 데이터 부족: 정적 기본치 tRelax=6, tBusy=16
      */
-    private Thresholds deriveThresholds(List<Integer> recentCounts) {
+    private Thresholds deriveThresholds(CrowdWindowStore.Snapshot window) {
         final int DEFAULT_RELAX = 6;   // 0~5 → 여유
         final int DEFAULT_BUSY  = 16;  // 16+  → 혼잡
 
-        if (recentCounts == null || recentCounts.size() < MIN_SAMPLES) {
+        if (window.sampleCount() < MIN_SAMPLES) {
             return new Thresholds(DEFAULT_RELAX, DEFAULT_BUSY);
         }
-        int p50 = percentileInt(recentCounts, 50);
-        int p90 = percentileInt(recentCounts, 90);
+        int p50 = window.p50();
+        int p90 = window.p90();
 
         int tRelax = Math.max(DEFAULT_RELAX, p50);
         int tBusy  = Math.max(DEFAULT_BUSY,  p90);
@@ -252,8 +267,8 @@ public class CongestionService {
      * - 데이터 충분: 적응형 임계치 적용
      * - 데이터 부족: 정적 임계치 적용
      */
-    private String determineStatus(int latestCount, List<Integer> recentCounts) {
-        Thresholds th = deriveThresholds(recentCounts);
+    private String determineStatus(int latestCount, CrowdWindowStore.Snapshot window) {
+        Thresholds th = deriveThresholds(window);
 
         // 실제 임계치 값을 사용하여 등급을 판정
         if (latestCount >= th.tBusy()) {
@@ -0,0 +1,197 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.event.BeachCongestionChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 혼잡도 변경 SSE 스트림
+ * 해변 상태가 바뀔 때(BeachCongestionChangedEvent)만 구독자에게 변경분을 보내므로 클라이언트가 주기적으로 조회할 필요가 없음
+ *
+ * - 구독 시 해변 ID로 필터링 가능 (비우면 전체)
+ * - 구독자마다 크기가 정해진 큐를 두고, 느린 클라이언트는 가장 오래된 이벤트부터 버림
+ * - 연결 유지를 위해 주기적으로 heartbeat 주석 전송
+ */
+@Service
+public class CongestionStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(CongestionStreamService.class);
+
+    private static final String EVENT_NAME = "congestion";
+
+    private final ThreadPoolTaskExecutor congestionStreamExecutor;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Counter dropped;
+
+    // 구독자별 대기 이벤트 최대 수
+    @Value("${congestion.stream.buffer-size:32}")
+    private int bufferSize;
+
+    // 동시 구독자 최대 수
+    @Value("${congestion.stream.max-subscribers:500}")
+    private int maxSubscribers;
+
+    // 연결 최대 유지 시간 (밀리초, 끝나면 EventSource가 자동 재연결)
+    @Value("${congestion.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public CongestionStreamService(ThreadPoolTaskExecutor congestionStreamExecutor, MeterRegistry meterRegistry) {
+        this.congestionStreamExecutor = congestionStreamExecutor;
+        Gauge.builder("congestion.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+        this.dropped = Counter.builder("congestion.stream.dropped")
+                .description("구독자 버퍼가 가득 차 버린 이벤트 수")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * 새 구독 등록
+     *
+     * @param beachIds 받을 해변 ID 목록 (비어 있으면 전체)
+     * @return 응답으로 반환할 SseEmitter (구독자가 너무 많으면 null)
+     */
+    public SseEmitter subscribe(Set<String> beachIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(beachIds));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // 연결 직후 재연결 간격 안내 겸 첫 heartbeat
+        subscriber.offer(SseEmitter.event().reconnectTime(3000).comment("connected"));
+        log.debug("Congestion stream subscribed (filter: {}, subscribers: {})",
+                beachIds.isEmpty() ? "all" : beachIds, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * 해변 상태 변경을 해당 해변을 구독 중인 클라이언트에게 전달
+     */
+    @EventListener
+    public void onChanged(BeachCongestionChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String id = Long.toString(sequence.incrementAndGet());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event.beachId())) {
+                subscriber.offer(SseEmitter.event()
+                        .id(id)
+                        .name(EVENT_NAME)
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    /**
+     * 프록시/로드밸런서가 유휴 연결을 끊지 않도록 주기적으로 주석 전송
+     */
+    @Scheduled(fixedDelayString = "${congestion.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    /**
+     * 구독자 한 명 (emitter + 필터 + 전송 대기 큐)
+     * 큐는 이 객체로 동기화하고, 전송은 스트림 풀에서 구독자당 한 작업만 돌도록 draining 플래그로 제어
+     */
+    private class Subscriber {
+        final SseEmitter emitter;
+        final Set<String> beachIds;
+        final Deque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Set<String> beachIds) {
+            this.emitter = emitter;
+            this.beachIds = beachIds;
+        }
+
+        boolean accepts(String beachId) {
+            return beachIds.isEmpty() || beachIds.contains(beachId);
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (queue.size() >= bufferSize) {
+                    queue.pollFirst();
+                    dropped.increment();
+                }
+                queue.addLast(event);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    congestionStreamExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    SseEmitter.SseEventBuilder next;
+                    synchronized (this) {
+                        next = queue.pollFirst();
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    emitter.send(next);
+                }
+            } catch (Exception e) {
+                // 클라이언트 연결 끊김 등: 구독 해제
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // 플래그를 내리는 사이 들어온 이벤트 처리
+            boolean pending;
+            synchronized (this) {
+                pending = !queue.isEmpty();
+            }
+            if (pending) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.app.yeogigangwon.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 프레임 한 장의 사람 수를 세는 추론 백엔드
+ * cctv.inference.backend로 선택 (python: python-api HTTP 호출, onnx: JVM 안에서 ONNX Runtime 추론)
+ */
+public interface CrowdCounter {
+
+    /**
+     * 프레임 한 장의 사람 수
+     *
+     * @param cctvId CCTV ID (로그용)
+     * @param jpeg   전처리된 JPEG 바이트
+     * @return 검출된 사람 수
+     */
+    int count(String cctvId, byte[] jpeg);
+
+    /**
+     * 여러 프레임의 사람 수 (CCTV ID → 사람 수)
+     * 기본 구현은 한 장씩 세고, 실패했거나 제한 시간이 지나 세지 못한 프레임은 결과에서 빠짐 (호출 측이 단건으로 다시 시도)
+     *
+     * @param frames        CCTV ID → JPEG 바이트
+     * @param timeoutMillis 전체 호출 제한 시간 (설정된 제한 시간보다 짧으면 이 값을 따름)
+     */
+    default Map<String, Integer> countBatch(Map<String, byte[]> frames, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, byte[]> frame : frames.entrySet()) {
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+            try {
+                counts.put(frame.getKey(), count(frame.getKey(), frame.getValue()));
+            } catch (RuntimeException e) {
+                // 결과에서 빠진 카메라는 파이프라인이 단건 경로로 처리
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 단건 호출 한 번에 걸릴 수 있는 최대 시간 (밀리초, 제한이 없으면 0)
+     * 남은 시간이 이보다 짧으면 파이프라인은 단건 재시도를 보내지 않음
+     */
+    default long countTimeoutMillis() {
+        return 0;
+    }
+
+    /**
+     * 한 주기의 프레임을 countBatch 한 번으로 묶는 편이 유리한지 여부
+     * (HTTP 백엔드는 왕복 비용 때문에 유리, 인프로세스 백엔드는 카메라별 병렬 추론이 더 빠름)
+     */
+    default boolean prefersBatch() {
+        return false;
+    }
+
+    /** 백엔드 이름 (메트릭/로그 태그) */
+    String name();
+}
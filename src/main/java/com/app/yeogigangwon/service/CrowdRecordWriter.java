@@ -0,0 +1,237 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.domain.CongestionDomain;
+import com.app.yeogigangwon.repository.CongestionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * crowd_records 쓰기 지연(write-behind) 버퍼
+ * 기록을 메모리 큐에 모았다가 일정 개수가 차거나 일정 시간이 지나면 JDBC 배치 한 번으로 저장
+ *
+ * 조회 경로(상태/윈도우)는 CrowdWindowStore를 쓰므로 저장이 몇 초 늦어도 응답에는 영향이 없음
+ * 큐가 가득 차면 호출 스레드가 한 번 직접 저장해 보고, DB 장애로 자리가 나지 않으면 잠깐만 기다린 뒤
+ * 가장 오래된 기록을 버림 (실패로 집계, 호출 스레드가 장애 동안 묶이지 않도록), 종료 시 남은 기록을 모두 저장
+ * 저장한 기록은 CrowdRollupService로 넘겨 시간/일 집계에 반영
+ */
+@Component
+public class CrowdRecordWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(CrowdRecordWriter.class);
+
+    // 큐에 들어간 시각을 함께 보관 (저장 지연 측정용)
+    private record Pending(CongestionDomain record, long enqueuedNanos) {}
+
+    private final CongestionRepository congestionRepository;
+    private final CrowdRollupService crowdRollupService;
+    private final BlockingQueue<Pending> queue;
+
+    // 주기 저장 타이머 / 개수 도달 시 저장 작업 (빈으로 등록하지 않음, 저장은 한 번에 하나씩)
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("crowd-writer-"));
+
+    // 저장은 한 번에 하나씩 (호출 스레드는 tryLock으로만 참여해 진행 중인 저장을 기다리지 않음)
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // 마지막 저장 실패 시각 (밀리초, 이후 flushIntervalMillis 동안 호출 스레드는 직접 저장하지 않음)
+    private volatile long lastFailedAtMillis;
+
+    private final Timer flushTimer;
+    private final Timer flushLag;
+    private final Counter written;
+    private final Counter failed;
+
+    // 이 개수가 모이면 바로 저장
+    @Value("${crowd.write.batch-size:50}")
+    private int batchSize;
+
+    // 개수가 덜 차도 이 간격마다 저장 (밀리초)
+    @Value("${crowd.write.flush-interval-ms:5000}")
+    private long flushIntervalMillis;
+
+    // 큐가 가득 찼을 때 호출 스레드가 자리를 기다리는 최대 시간 (밀리초)
+    @Value("${crowd.write.full-wait-ms:200}")
+    private long fullWaitMillis;
+
+    public CrowdRecordWriter(CongestionRepository congestionRepository,
+                             CrowdRollupService crowdRollupService,
+                             MeterRegistry meterRegistry,
+                             @Value("${crowd.write.buffer-capacity:1000}") int bufferCapacity) {
+        this.congestionRepository = congestionRepository;
+        this.crowdRollupService = crowdRollupService;
+        this.queue = new ArrayBlockingQueue<>(bufferCapacity);
+
+        Gauge.builder("crowd.records.pending", queue, BlockingQueue::size)
+                .description("저장 대기 중인 혼잡도 기록 수")
+                .register(meterRegistry);
+        Gauge.builder("crowd.records.oldest.age", this, CrowdRecordWriter::oldestPendingMillis)
+                .description("가장 오래 기다린 기록의 대기 시간 (밀리초)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.flushLag = Timer.builder("crowd.records.flush.lag")
+                .description("기록이 큐에 들어간 뒤 DB에 저장되기까지 걸린 시간 (배치 내 가장 오래된 기록 기준)")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("crowd.records.flush.duration")
+                .description("배치 저장 소요 시간")
+                .register(meterRegistry);
+        this.written = meterRegistry.counter("crowd.records.written");
+        this.failed = meterRegistry.counter("crowd.records.failed");
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 종료 시 타이머를 멈추고 남은 기록 저장
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int remaining = queue.size();
+        flush();
+        log.info("Crowd record writer stopped, flushed {} pending records", remaining);
+    }
+
+    /**
+     * 기록 저장 요청 (큐에 넣고 바로 반환)
+     */
+    public void write(String beachId, int personCount, double roiRatio, LocalDateTime timestamp, boolean frameReused) {
+        CongestionDomain record = new CongestionDomain();
+        record.setBeachId(beachId);
+        record.setPersonCount(personCount);
+        record.setRoiRatio(roiRatio);
+        record.setTimestamp(timestamp);
+        record.setFrameReused(frameReused);
+
+        Pending pending = new Pending(record, System.nanoTime());
+        if (!queue.offer(pending)) {
+            enqueueWhenFull(pending);
+        }
+        if (queue.size() >= batchSize && !flusher.isShutdown()) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * 큐에 쌓인 기록을 batchSize 단위 JDBC 배치로 저장
+     * 저장에 실패한 배치는 다음 주기에 다시 시도할 수 있도록 큐에 되돌림 (자리가 없으면 버리고 실패로 집계)
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 큐가 가득 찬 경우 (재시도 횟수/대기 시간 모두 제한)
+     * 1) 최근 저장 실패가 없고 다른 스레드가 저장 중이 아니면 한 번 직접 저장
+     * 2) 그래도 자리가 없으면 fullWaitMillis까지만 기다림
+     * 3) 가장 오래된 기록을 버리고 넣음 (버린 기록은 실패로 집계)
+     */
+    private void enqueueWhenFull(Pending pending) {
+        boolean backingOff = System.currentTimeMillis() - lastFailedAtMillis < flushIntervalMillis;
+        if (!backingOff && flushLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        try {
+            if (queue.offer(pending, fullWaitMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Pending dropped = queue.poll();
+        if (dropped != null) {
+            failed.increment();
+        }
+        if (!queue.offer(pending)) {
+            failed.increment();
+        }
+        log.warn("Crowd record buffer full, dropped oldest record ({})",
+                dropped != null ? dropped.record().getBeachId() + " " + dropped.record().getTimestamp() : "-");
+    }
+
+    // flushLock을 잡은 상태에서 호출
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            List<CongestionDomain> records = new ArrayList<>(batch.size());
+            for (Pending p : batch) {
+                records.add(p.record());
+            }
+            try {
+                long started = System.nanoTime();
+                congestionRepository.insertAll(records);
+                long finished = System.nanoTime();
+                flushTimer.record(finished - started, TimeUnit.NANOSECONDS);
+                flushLag.record(finished - batch.get(0).enqueuedNanos(), TimeUnit.NANOSECONDS);
+                written.increment(records.size());
+                log.debug("Flushed {} crowd records", records.size());
+            } catch (Exception e) {
+                int requeued = 0;
+                for (Pending p : batch) {
+                    if (queue.offer(p)) {
+                        requeued++;
+                    }
+                }
+                failed.increment(batch.size() - requeued);
+                lastFailedAtMillis = System.currentTimeMillis();
+                log.error("Failed to flush {} crowd records ({} requeued): {}", batch.size(), requeued, e.getMessage());
+                return;
+            }
+            // 원본 저장이 끝난 기록만 시간/일 집계에 반영 (집계 실패는 원본 재시도와 무관)
+            try {
+                crowdRollupService.apply(records);
+            } catch (Exception e) {
+                log.error("Failed to update crowd rollups for {} records: {}", records.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Crowd record flush failed: {}", e.getMessage());
+        }
+    }
+
+    // 가장 오래 기다린 기록의 대기 시간 (밀리초, 없으면 0)
+    private double oldestPendingMillis() {
+        Pending oldest = queue.peek();
+        return oldest == null ? 0 : (System.nanoTime() - oldest.enqueuedNanos()) / 1_000_000.0;
+    }
+}
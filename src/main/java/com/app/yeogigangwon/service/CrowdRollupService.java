@@ -0,0 +1,275 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.domain.CongestionDomain;
+import com.app.yeogigangwon.domain.CrowdRollup;
+import com.app.yeogigangwon.dto.CongestionDto;
+import com.app.yeogigangwon.repository.CongestionRepository;
+import com.app.yeogigangwon.repository.CrowdRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 혼잡도 기록 집계(rollup)와 보관 기간 관리
+ *
+ * - 기록이 저장될 때마다 해당 시간/일 구간의 min/avg/max/p90을 다시 계산해 crowd_rollups에 upsert
+ *   (열린 구간의 값은 메모리에 정렬 배열로 유지, 재시작 후 처음 닿은 구간은 원본 기록에서 다시 읽음)
+ * - 원본 기록과 시간 단위 집계는 보관 기간이 지나면 삭제, 일 단위 집계는 계속 보관
+ * - 이력 조회는 요청 범위에 맞는 가장 굵은 단위를 골라 행 수를 제한
+ */
+@Service
+public class CrowdRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(CrowdRollupService.class);
+
+    // 대한민국 표준시 타임존 상수 (crowd_records.timestamp 기준)
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    /** 이력 조회 단위 (RAW = 원본 기록) */
+    public enum Resolution { RAW, HOUR, DAY }
+
+    // 집계 구간 식별자
+    private record BucketKey(String beachId, CrowdRollup.Granularity granularity, LocalDateTime start) {}
+
+    private final CongestionRepository congestionRepository;
+    private final CrowdRollupRepository crowdRollupRepository;
+
+    // 아직 닫히지 않은 구간의 값 (apply에서만 접근, this로 동기화)
+    private final Map<BucketKey, Bucket> openBuckets = new HashMap<>();
+
+    // 원본 기록 보관 기간 (일)
+    @Value("${crowd.retention.raw-days:30}")
+    private int rawRetentionDays;
+
+    // 시간 단위 집계 보관 기간 (일)
+    @Value("${crowd.retention.hourly-days:180}")
+    private int hourlyRetentionDays;
+
+    // 원본 기록 최소 간격 (카메라별 분석 간격 하한, 원본 행 수 추정용)
+    @Value("${cctv.schedule.min-interval-minutes:5}")
+    private double rawIntervalMinutes;
+
+    // 이력 조회 한 번에 돌려줄 최대 구간 수 (이 안에 들어오는 가장 세밀한 단위를 선택)
+    @Value("${crowd.history.max-points:200}")
+    private int maxPoints;
+
+    public CrowdRollupService(CongestionRepository congestionRepository,
+                              CrowdRollupRepository crowdRollupRepository) {
+        this.congestionRepository = congestionRepository;
+        this.crowdRollupRepository = crowdRollupRepository;
+    }
+
+    /**
+     * 가장 이른 일 단위 집계보다 앞선 원본 기록으로 집계를 채움 (도입 시점 이전 기록용)
+     * 테이블이 비었는지로 판단하면 시작 직후 apply가 먼저 쓴 구간 때문에 백필이 건너뛰어지므로,
+     * 이미 쓰인 구간과 오늘 구간(apply 담당)은 건드리지 않고 그 이전 구간만 채움 → 매 시작마다 실행해도 안전
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            LocalDateTime now = LocalDateTime.now(KST);
+            LocalDateTime until = now.truncatedTo(ChronoUnit.DAYS);
+            LocalDateTime earliest = crowdRollupRepository
+                    .findFirstByGranularityOrderByBucketStartAsc(CrowdRollup.Granularity.DAY)
+                    .map(CrowdRollup::getBucketStart)
+                    .orElse(until);
+            if (earliest.isBefore(until)) {
+                until = earliest;
+            }
+            LocalDateTime since = now.minusDays(rawRetentionDays);
+            if (!since.isBefore(until)) {
+                return;
+            }
+            List<CongestionDomain> records = congestionRepository
+                    .findByTimestampBetweenOrderByTimestampAsc(since, until.minusNanos(1));
+            Map<BucketKey, Bucket> buckets = new LinkedHashMap<>();
+            for (CongestionDomain r : records) {
+                for (CrowdRollup.Granularity granularity : CrowdRollup.Granularity.values()) {
+                    BucketKey key = keyOf(r.getBeachId(), granularity, r.getTimestamp());
+                    buckets.computeIfAbsent(key, k -> new Bucket()).add(r.getPersonCount());
+                }
+            }
+            if (records.isEmpty()) {
+                return;
+            }
+            List<CrowdRollup> rollups = new ArrayList<>(buckets.size());
+            buckets.forEach((key, bucket) -> rollups.add(bucket.toRollup(key, now)));
+            crowdRollupRepository.upsertAll(rollups);
+            log.info("Crowd rollups backfilled before {}: {} buckets from {} records",
+                    until, rollups.size(), records.size());
+        } catch (Exception e) {
+            log.error("Failed to backfill crowd rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 새로 저장된 기록을 시간/일 구간 집계에 반영 (CrowdRecordWriter가 원본 저장 직후 호출)
+     */
+    public synchronized void apply(List<CongestionDomain> records) {
+        Map<BucketKey, List<Integer>> added = new LinkedHashMap<>();
+        for (CongestionDomain r : records) {
+            for (CrowdRollup.Granularity granularity : CrowdRollup.Granularity.values()) {
+                added.computeIfAbsent(keyOf(r.getBeachId(), granularity, r.getTimestamp()), k -> new ArrayList<>())
+                        .add(r.getPersonCount());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now(KST);
+        List<CrowdRollup> rollups = new ArrayList<>(added.size());
+        for (Map.Entry<BucketKey, List<Integer>> entry : added.entrySet()) {
+            BucketKey key = entry.getKey();
+            Bucket bucket = openBuckets.get(key);
+            if (bucket == null) {
+                // 처음 닿은 구간: 원본 기록에서 복원 (방금 저장한 기록도 포함됨)
+                bucket = load(key);
+                if (bucket.size == 0) {
+                    entry.getValue().forEach(bucket::add);
+                }
+                openBuckets.put(key, bucket);
+            } else {
+                entry.getValue().forEach(bucket::add);
+            }
+            rollups.add(bucket.toRollup(key, now));
+        }
+        crowdRollupRepository.upsertAll(rollups);
+        evictClosed(now);
+    }
+
+    /**
+     * 매일 새벽 보관 기간이 지난 원본 기록과 시간 단위 집계 삭제
+     */
+    @Scheduled(cron = "0 40 3 * * *", zone = "Asia/Seoul")
+    public void purgeExpired() {
+        try {
+            LocalDateTime now = LocalDateTime.now(KST);
+            int raw = congestionRepository.deleteByTimestampBefore(now.minusDays(rawRetentionDays));
+            int hourly = crowdRollupRepository.deleteByGranularityAndBucketStartBefore(
+                    CrowdRollup.Granularity.HOUR, now.minusDays(hourlyRetentionDays));
+            log.info("Crowd retention: deleted {} raw records (> {} days), {} hourly rollups (> {} days)",
+                    raw, rawRetentionDays, hourly, hourlyRetentionDays);
+        } catch (Exception e) {
+            log.error("Failed to purge expired crowd records: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 해변 혼잡도 이력 조회
+     * 범위 안 구간 수가 maxPoints 이하가 되는 가장 세밀한 단위를 고름 (한 달 범위 → 일 단위 약 30행)
+     * 보관 기간이 지나 지워졌을 수 있는 단위는 건너뜀
+     */
+    public CongestionDto.CrowdHistory getHistory(String beachId, LocalDateTime from, LocalDateTime to) {
+        Resolution resolution = chooseResolution(from, to, LocalDateTime.now(KST));
+        List<CongestionDto.HistoryBucket> buckets = new ArrayList<>();
+
+        if (resolution == Resolution.RAW) {
+            for (CongestionDomain r : congestionRepository.findByBeachIdAndTimestampBetweenOrderByTimestampAsc(beachId, from, to)) {
+                int c = r.getPersonCount();
+                buckets.add(new CongestionDto.HistoryBucket(r.getTimestamp(), 1, c, c, c, c));
+            }
+        } else {
+            CrowdRollup.Granularity granularity = CrowdRollup.Granularity.valueOf(resolution.name());
+            List<CrowdRollup> rollups = crowdRollupRepository.findByBeachIdAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+                    beachId, granularity, truncate(granularity, from), to);
+            for (CrowdRollup r : rollups) {
+                buckets.add(new CongestionDto.HistoryBucket(r.getBucketStart(), r.getSampleCount(),
+                        r.getMinCount(), round(r.getAvgCount()), r.getMaxCount(), r.getP90Count()));
+            }
+        }
+        return new CongestionDto.CrowdHistory(beachId, resolution.name(), from, to, buckets);
+    }
+
+    private Resolution chooseResolution(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        long minutes = Math.max(1, Duration.between(from, to).toMinutes());
+        if (minutes / rawIntervalMinutes <= maxPoints && !from.isBefore(now.minusDays(rawRetentionDays))) {
+            return Resolution.RAW;
+        }
+        if (minutes / 60 <= maxPoints && !from.isBefore(now.minusDays(hourlyRetentionDays))) {
+            return Resolution.HOUR;
+        }
+        return Resolution.DAY;
+    }
+
+    // 구간 원본 기록으로 Bucket 복원
+    private Bucket load(BucketKey key) {
+        LocalDateTime end = end(key).minusNanos(1);
+        Bucket bucket = new Bucket();
+        for (CongestionDomain r : congestionRepository.findByBeachIdAndTimestampBetweenOrderByTimestampAsc(key.beachId(), key.start(), end)) {
+            bucket.add(r.getPersonCount());
+        }
+        return bucket;
+    }
+
+    // 끝난 지 한 구간 이상 지난 구간은 메모리에서 제거 (늦게 온 기록은 load로 다시 복원)
+    private void evictClosed(LocalDateTime now) {
+        Iterator<BucketKey> it = openBuckets.keySet().iterator();
+        while (it.hasNext()) {
+            BucketKey key = it.next();
+            LocalDateTime end = end(key);
+            if (end.plus(Duration.between(key.start(), end)).isBefore(now)) {
+                it.remove();
+            }
+        }
+    }
+
+    private static BucketKey keyOf(String beachId, CrowdRollup.Granularity granularity, LocalDateTime timestamp) {
+        return new BucketKey(beachId, granularity, truncate(granularity, timestamp));
+    }
+
+    private static LocalDateTime truncate(CrowdRollup.Granularity granularity, LocalDateTime t) {
+        return granularity == CrowdRollup.Granularity.HOUR ? t.truncatedTo(ChronoUnit.HOURS) : t.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private static LocalDateTime end(BucketKey key) {
+        return key.granularity() == CrowdRollup.Granularity.HOUR ? key.start().plusHours(1) : key.start().plusDays(1);
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+
+    /**
+     * 구간 하나의 값 (정렬 배열로 유지해 min/max/p90을 바로 계산)
+     */
+    private static class Bucket {
+        private int[] sorted = new int[8];
+        private int size;
+        private long sum;
+
+        void add(int value) {
+            if (size == sorted.length) {
+                sorted = Arrays.copyOf(sorted, size * 2);
+            }
+            int pos = size;
+            while (pos > 0 && sorted[pos - 1] > value) {
+                sorted[pos] = sorted[pos - 1];
+                pos--;
+            }
+            sorted[pos] = value;
+            size++;
+            sum += value;
+        }
+
+        CrowdRollup toRollup(BucketKey key, LocalDateTime now) {
+            // CrowdWindowStore와 같은 퍼센타일 인덱스 규칙
+            int p90 = sorted[Math.max(0, Math.min((int) Math.ceil(0.9 * size) - 1, size - 1))];
+            return new CrowdRollup(null, key.beachId(), key.granularity(), key.start(),
+                    size, sorted[0], sorted[size - 1], (double) sum / size, p90, now);
+        }
+    }
+}
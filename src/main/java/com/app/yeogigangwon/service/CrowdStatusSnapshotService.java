@@ -0,0 +1,205 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.dto.CongestionDto;
+import com.app.yeogigangwon.event.BeachCongestionChangedEvent;
+import com.app.yeogigangwon.event.CrowdCycleCompletedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * /api/congestion/status 응답 스냅샷
+ * 분석 주기가 끝날 때 한 번 계산해 JSON 바이트로 직렬화해 두고, 요청은 그 바이트를 그대로 내려줌
+ *
+ * 요청 시점에 따라 달라지는 부분("정보없음" 전환, 시간대 가중치)은 다음 전환 시각에 맞춘 타이머로 다시 계산
+ * 다시 계산할 때 바뀐 해변은 BeachCongestionChangedEvent로 알림
+ */
+@Service
+public class CrowdStatusSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CrowdStatusSnapshotService.class);
+
+    // 대한민국 표준시 타임존 상수
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    /**
+     * 직렬화된 상태 응답 (불변)
+     *
+     * @param json        JSON 바이트
+     * @param etag        내용 기준 ETag
+     * @param generatedAt 계산 시각
+     * @param expiresAt   다음 분석 또는 다음 전환 시각 중 빠른 쪽 (Cache-Control 기준)
+     */
+    public record Snapshot(byte[] json, String etag, LocalDateTime generatedAt, LocalDateTime expiresAt) {
+        /** 기준 시각부터 만료까지 남은 초 */
+        public long maxAgeSeconds(LocalDateTime now) {
+            return Math.max(0, Duration.between(now, expiresAt).getSeconds());
+        }
+    }
+
+    private final CongestionService congestionService;
+    private final CrowdWindowStore crowdWindowStore;
+    private final CaptureIntervalPlanner captureIntervalPlanner;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 다음 전환 시각에 재계산하는 타이머 (빈으로 등록하지 않음)
+    private final ScheduledExecutorService timer =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("crowd-status-timer-"));
+    private ScheduledFuture<?> pendingRefresh;
+
+    private volatile Snapshot current;
+
+    // 직전 스냅샷의 해변별 상태 (바뀐 해변만 알리기 위해 비교)
+    private final Map<String, CongestionDto.CrowdStatus> lastStatuses = new HashMap<>();
+
+    public CrowdStatusSnapshotService(CongestionService congestionService,
+                                      CrowdWindowStore crowdWindowStore,
+                                      CaptureIntervalPlanner captureIntervalPlanner,
+                                      ObjectMapper objectMapper,
+                                      ApplicationEventPublisher eventPublisher) {
+        this.congestionService = congestionService;
+        this.crowdWindowStore = crowdWindowStore;
+        this.captureIntervalPlanner = captureIntervalPlanner;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * 시작 시 첫 스냅샷 생성 (윈도우 복원 이후에 실행되도록 가장 늦게)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onReady() {
+        refresh("startup");
+    }
+
+    /**
+     * 분석 주기가 끝나면 스냅샷 갱신
+     */
+    @EventListener
+    public void onCycleCompleted(CrowdCycleCompletedEvent event) {
+        refresh("cycle " + event.timestamp());
+    }
+
+    /**
+     * 현재 스냅샷 (아직 없으면 즉시 생성)
+     */
+    public Snapshot getSnapshot() {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot : refresh("first request");
+    }
+
+    /**
+     * 상태 계산 → 직렬화 → 교체, 그리고 다음 전환 시각에 타이머 예약
+     */
+    public synchronized Snapshot refresh(String reason) {
+        LocalDateTime now = LocalDateTime.now(KST);
+        List<CongestionDto.CrowdStatus> statuses = congestionService.getCrowdStatus();
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(statuses);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("혼잡도 상태 직렬화 실패", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        String etag = "\"" + Long.toHexString(crc.getValue()) + "\"";
+
+        LocalDateTime nextTransition = nextTransition(now);
+        LocalDateTime expiresAt = min(nextTransition, captureIntervalPlanner.nextRunAt(now));
+        Snapshot snapshot = new Snapshot(json, etag, now, expiresAt);
+        current = snapshot;
+        publishChanges(statuses, now);
+
+        if (pendingRefresh != null) {
+            pendingRefresh.cancel(false);
+        }
+        long delayMillis = Math.max(1000, Duration.between(now, nextTransition).toMillis());
+        pendingRefresh = timer.schedule(this::refreshOnTimer, delayMillis, TimeUnit.MILLISECONDS);
+
+        log.debug("Crowd status snapshot refreshed ({}): {} bytes, etag {}, next transition {}",
+                reason, json.length, etag, nextTransition);
+        return snapshot;
+    }
+
+    /**
+     * 직전 스냅샷과 비교해 상태/사람 수/기준 레벨이 바뀐 해변만 이벤트 발행
+     */
+    private void publishChanges(List<CongestionDto.CrowdStatus> statuses, LocalDateTime now) {
+        for (CongestionDto.CrowdStatus status : statuses) {
+            CongestionDto.CrowdStatus prev = lastStatuses.put(status.getBeachId(), status);
+            if (prev != null
+                    && prev.getStatus().equals(status.getStatus())
+                    && prev.getPersonCount() == status.getPersonCount()
+                    && Objects.equals(prev.getReferenceCrowdLevel(), status.getReferenceCrowdLevel())) {
+                continue;
+            }
+            eventPublisher.publishEvent(new BeachCongestionChangedEvent(
+                    status.getBeachId(), "cctv", status.getStatus(), status.getPersonCount(),
+                    null, status.getReferenceCrowdLevel(), now));
+        }
+    }
+
+    private void refreshOnTimer() {
+        try {
+            refresh("timer");
+        } catch (Exception e) {
+            log.error("Failed to refresh crowd status snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 응답 내용이 시간만으로 바뀌는 가장 가까운 시각
+     * - 해변별 마지막 기록이 정보없음 기준(staleAfterMinutes)을 넘기는 시각
+     * - 다음 정시 (시간대/요일/월 가중치가 바뀔 수 있음)
+     */
+    private LocalDateTime nextTransition(LocalDateTime now) {
+        LocalDateTime next = now.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        for (CongestionDto.CctvInfo cctv : congestionService.getCctvList()) {
+            CrowdWindowStore.Snapshot window = crowdWindowStore.snapshot(cctv.getId(), now);
+            if (window.latestAt() == null) {
+                continue;
+            }
+            // 경계 시각에는 아직 "정보없음"이 아니므로 1초 뒤로
+            LocalDateTime staleAt = window.latestAt().plusMinutes(congestionService.staleAfterMinutes(cctv.getId())).plusSeconds(1);
+            if (staleAt.isAfter(now)) {
+                next = min(next, staleAt);
+            }
+        }
+        return next;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,160 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.domain.CongestionDomain;
+import com.app.yeogigangwon.repository.CongestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 해변별 최근 24시간 사람 수 윈도우 (인메모리)
+ * 저장 시점에 갱신되고, 값들을 항상 정렬된 배열로 유지해 p50/p90 조회가 배열 접근 한 번으로 끝남
+ * 재시작 시 crowd_records 최근 24시간으로 다시 채움 (상태 스냅샷보다 먼저)
+ */
+@Component
+public class CrowdWindowStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CrowdWindowStore.class);
+
+    // 윈도우 길이
+    public static final Duration WINDOW = Duration.ofHours(24);
+
+    // 대한민국 표준시 타임존 상수 (crowd_records.timestamp 기준)
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    /**
+     * 윈도우 조회 결과 (불변)
+     *
+     * @param sampleCount   윈도우 안 기록 수
+     * @param latestCount   가장 최근 사람 수
+     * @param latestAt      가장 최근 기록 시각 (기록이 없으면 null)
+     * @param p50           중위수
+     * @param p90           90 퍼센타일
+     */
+    public record Snapshot(int sampleCount, int latestCount, LocalDateTime latestAt, int p50, int p90) {
+        static final Snapshot EMPTY = new Snapshot(0, 0, null, 0, 0);
+    }
+
+    private final CongestionRepository congestionRepository;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public CrowdWindowStore(CongestionRepository congestionRepository) {
+        this.congestionRepository = congestionRepository;
+    }
+
+    /**
+     * 애플리케이션 시작 시 최근 24시간 기록으로 윈도우 복원 (이미 들어온 기록과 겹치면 무시)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuild() {
+        try {
+            LocalDateTime since = LocalDateTime.now(KST).minus(WINDOW);
+            List<CongestionDomain> records = congestionRepository.findByTimestampAfterOrderByTimestampAsc(since);
+            for (CongestionDomain r : records) {
+                record(r.getBeachId(), r.getTimestamp(), r.getPersonCount());
+            }
+            log.info("Crowd windows rebuilt from {} records for {} beaches", records.size(), windows.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild crowd windows: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 새 기록 반영
+     */
+    public void record(String beachId, LocalDateTime timestamp, int personCount) {
+        windows.computeIfAbsent(beachId, id -> new Window()).add(timestamp, personCount);
+    }
+
+    /**
+     * 해변의 현재 윈도우 조회 (24시간이 지난 기록은 이때 정리)
+     */
+    public Snapshot snapshot(String beachId, LocalDateTime now) {
+        Window window = windows.get(beachId);
+        return window == null ? Snapshot.EMPTY : window.snapshot(now);
+    }
+
+    /**
+     * 해변 한 곳의 윈도우
+     * 시간순 목록(만료 처리용)과 값 정렬 배열(퍼센타일용)을 함께 유지, 24시간 기록 수가 작아 삽입/삭제 이동 비용은 무시할 수준
+     */
+    private static class Window {
+        private final List<LocalDateTime> times = new ArrayList<>();
+        private final List<Integer> counts = new ArrayList<>();
+        private int[] sorted = new int[128];
+        private int size;
+
+        synchronized void add(LocalDateTime timestamp, int personCount) {
+            // 시간순 위치 찾기 (보통 맨 뒤), 같은 시각 기록이 이미 있으면 무시
+            int pos = times.size();
+            while (pos > 0 && times.get(pos - 1).isAfter(timestamp)) {
+                pos--;
+            }
+            if (pos > 0 && times.get(pos - 1).isEqual(timestamp)) {
+                return;
+            }
+            times.add(pos, timestamp);
+            counts.add(pos, personCount);
+            insertSorted(personCount);
+        }
+
+        synchronized Snapshot snapshot(LocalDateTime now) {
+            LocalDateTime threshold = now.minus(WINDOW);
+            while (!times.isEmpty() && times.get(0).isBefore(threshold)) {
+                times.remove(0);
+                removeSorted(counts.remove(0));
+            }
+            if (size == 0) {
+                return Snapshot.EMPTY;
+            }
+            int last = times.size() - 1;
+            return new Snapshot(size, counts.get(last), times.get(last), percentile(50), percentile(90));
+        }
+
+        // 정렬 배열에서 p-퍼센타일 (기존 percentileInt와 같은 인덱스 규칙)
+        private int percentile(double p) {
+            int idx = (int) Math.ceil(p / 100.0 * size) - 1;
+            return sorted[Math.max(0, Math.min(idx, size - 1))];
+        }
+
+        private void insertSorted(int value) {
+            if (size == sorted.length) {
+                sorted = Arrays.copyOf(sorted, size * 2);
+            }
+            int pos = upperBound(value);
+            System.arraycopy(sorted, pos, sorted, pos + 1, size - pos);
+            sorted[pos] = value;
+            size++;
+        }
+
+        private void removeSorted(int value) {
+            int pos = upperBound(value) - 1;  // 같은 값 중 마지막 위치 (항상 존재)
+            System.arraycopy(sorted, pos + 1, sorted, pos, size - pos - 1);
+            size--;
+        }
+
+        // value보다 큰 첫 위치
+        private int upperBound(int value) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid] <= value) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
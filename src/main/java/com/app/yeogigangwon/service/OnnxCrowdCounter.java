@@ -0,0 +1,218 @@
+package com.app.yeogigangwon.service;
+
+import ai.onnxruntime.NodeInfo;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.TensorInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * JVM 안에서 ONNX Runtime(CPU)으로 사람 수를 세는 백엔드 (cctv.inference.backend=onnx)
+ * python-api와 같은 YOLOv8 가중치를 ONNX로 내보낸 모델을 사용 (python-api/export_onnx.py)
+ *
+ * 입력: 레터박스(회색 114 여백)로 정사각형 입력 크기에 맞춘 RGB, 0~1 float, NCHW
+ * 출력: [1, 4 + 클래스 수, 후보 수] (cx, cy, w, h, 클래스별 점수), 사람(클래스 0) 후보만 NMS 후 개수 반환
+ * 신뢰도/IoU 기본값은 ultralytics 추론 기본값(0.25 / 0.7)과 같아 python-api와 결과가 맞도록 함
+ *
+ * OrtSession.run은 여러 스레드에서 동시에 호출할 수 있으므로 카메라별 추론을 추론 스레드 풀에서 병렬로 실행
+ */
+@Component
+@ConditionalOnProperty(name = "cctv.inference.backend", havingValue = "onnx")
+public class OnnxCrowdCounter implements CrowdCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(OnnxCrowdCounter.class);
+
+    // 사람 클래스 (COCO 기준)
+    private static final int PERSON_CLASS = 0;
+
+    // 이미지 한 장당 최대 검출 수 (ultralytics max_det 기본값)
+    private static final int MAX_DETECTIONS = 300;
+
+    // 레터박스 여백 색 (ultralytics와 동일)
+    private static final Color PAD_COLOR = new Color(114, 114, 114);
+
+    private final OrtEnvironment environment;
+    private final OrtSession session;
+    private final String inputName;
+    private final int inputSize;
+    private final float confidenceThreshold;
+    private final float iouThreshold;
+
+    public OnnxCrowdCounter(
+            @Value("${cctv.onnx.model-path:./models/best_m.onnx}") String modelPath,
+            @Value("${cctv.onnx.intra-op-threads:2}") int intraOpThreads,
+            @Value("${cctv.onnx.confidence:0.25}") float confidenceThreshold,
+            @Value("${cctv.onnx.iou:0.7}") float iouThreshold) throws OrtException {
+        this.environment = OrtEnvironment.getEnvironment();
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setIntraOpNumThreads(intraOpThreads);
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            this.session = environment.createSession(modelPath, options);
+        }
+        this.inputName = session.getInputNames().iterator().next();
+        this.inputSize = inputSize(session.getInputInfo().get(inputName));
+        this.confidenceThreshold = confidenceThreshold;
+        this.iouThreshold = iouThreshold;
+        log.info("ONNX crowd counter loaded {} (input {}x{}, {} intra-op threads)",
+                modelPath, inputSize, inputSize, intraOpThreads);
+    }
+
+    // 모델 입력 [1, 3, H, W]의 한 변 (동적 축이면 640)
+    private static int inputSize(NodeInfo info) {
+        long[] shape = ((TensorInfo) info.getInfo()).getShape();
+        return shape.length == 4 && shape[3] > 0 ? (int) shape[3] : 640;
+    }
+
+    @PreDestroy
+    public void close() throws OrtException {
+        session.close();
+    }
+
+    @Override
+    public int count(String cctvId, byte[] jpeg) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(jpeg));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("이미지를 읽을 수 없습니다: " + cctvId, e);
+        }
+        if (image == null) {
+            throw new IllegalArgumentException("지원하지 않는 이미지 형식입니다: " + cctvId);
+        }
+
+        long[] shape = {1, 3, inputSize, inputSize};
+        try (OnnxTensor input = OnnxTensor.createTensor(environment, FloatBuffer.wrap(letterbox(image)), shape);
+             OrtSession.Result result = session.run(Map.of(inputName, input))) {
+            OnnxTensor output = (OnnxTensor) result.get(0);
+            long[] outShape = output.getInfo().getShape();
+            int personCount = countPersons(output.getFloatBuffer(), (int) outShape[1], (int) outShape[2]);
+            log.info("CCTV ID: {}, Detected Persons: {}", cctvId, personCount);
+            return personCount;
+        } catch (OrtException e) {
+            throw new IllegalStateException("ONNX inference failure: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "onnx";
+    }
+
+    /**
+     * 비율을 유지해 입력 크기 안에 맞추고 남는 곳은 회색으로 채운 뒤 CHW float 배열로 변환
+     */
+    private float[] letterbox(BufferedImage image) {
+        double scale = Math.min((double) inputSize / image.getWidth(), (double) inputSize / image.getHeight());
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage canvas = new BufferedImage(inputSize, inputSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas.createGraphics();
+        try {
+            g.setColor(PAD_COLOR);
+            g.fillRect(0, 0, inputSize, inputSize);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, (inputSize - width) / 2, (inputSize - height) / 2, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        int plane = inputSize * inputSize;
+        float[] chw = new float[3 * plane];
+        int[] row = new int[inputSize];
+        for (int y = 0; y < inputSize; y++) {
+            canvas.getRGB(0, y, inputSize, 1, row, 0, inputSize);
+            int offset = y * inputSize;
+            for (int x = 0; x < inputSize; x++) {
+                int rgb = row[x];
+                chw[offset + x] = ((rgb >> 16) & 0xFF) / 255f;
+                chw[plane + offset + x] = ((rgb >> 8) & 0xFF) / 255f;
+                chw[2 * plane + offset + x] = (rgb & 0xFF) / 255f;
+            }
+        }
+        return chw;
+    }
+
+    /**
+     * 후보 중 가장 높은 점수의 클래스가 사람이고 신뢰도 이상인 것만 남겨 NMS 후 개수 반환
+     *
+     * @param out        [채널, 후보] 순서로 펼친 출력
+     * @param channels   4 + 클래스 수
+     * @param candidates 후보 수
+     */
+    private int countPersons(FloatBuffer out, int channels, int candidates) {
+        float[] scores = new float[candidates];
+        int[] kept = new int[candidates];
+        int n = 0;
+        for (int i = 0; i < candidates; i++) {
+            float person = out.get((4 + PERSON_CLASS) * candidates + i);
+            if (person < confidenceThreshold) {
+                continue;
+            }
+            boolean best = true;
+            for (int c = 4; c < channels && best; c++) {
+                best = c == 4 + PERSON_CLASS || out.get(c * candidates + i) <= person;
+            }
+            if (best) {
+                scores[i] = person;
+                kept[n++] = i;
+            }
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        // 점수 내림차순 정렬 후 greedy NMS
+        Integer[] order = new Integer[n];
+        for (int k = 0; k < n; k++) {
+            order[k] = kept[k];
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+
+        float[][] boxes = new float[n][];
+        int selected = 0;
+        for (int k = 0; k < n && selected < MAX_DETECTIONS; k++) {
+            int i = order[k];
+            float cx = out.get(i), cy = out.get(candidates + i);
+            float w = out.get(2 * candidates + i), h = out.get(3 * candidates + i);
+            float[] box = {cx - w / 2, cy - h / 2, cx + w / 2, cy + h / 2};
+            boolean suppressed = false;
+            for (int s = 0; s < selected && !suppressed; s++) {
+                suppressed = iou(box, boxes[s]) > iouThreshold;
+            }
+            if (!suppressed) {
+                boxes[selected++] = box;
+            }
+        }
+        return selected;
+    }
+
+    private static float iou(float[] a, float[] b) {
+        float w = Math.min(a[2], b[2]) - Math.max(a[0], b[0]);
+        float h = Math.min(a[3], b[3]) - Math.max(a[1], b[1]);
+        if (w <= 0 || h <= 0) {
+            return 0f;
+        }
+        float inter = w * h;
+        float union = (a[2] - a[0]) * (a[3] - a[1]) + (b[2] - b[0]) * (b[3] - b[1]) - inter;
+        return union <= 0 ? 0f : inter / union;
+    }
+}
@@ -0,0 +1,133 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.dto.CongestionDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * python-api(Flask + YOLOv8) HTTP 호출로 사람 수를 세는 백엔드 (기본값)
+ * 단건은 Base64 JSON(/analyze_crowd), 배치는 CCTV ID를 파트 이름으로 한 multipart(/analyze_crowd_batch)
+ */
+@Component
+@ConditionalOnProperty(name = "cctv.inference.backend", havingValue = "python", matchIfMissing = true)
+public class PythonApiCrowdCounter implements CrowdCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(PythonApiCrowdCounter.class);
+
+    private final String pythonApiUrl;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final int batchReadTimeoutMillis;
+
+    // 단건 추론용 / 배치 추론용 HTTP 클라이언트 (읽기 타임아웃이 달라 분리)
+    private final RestTemplate inferenceRestTemplate;
+    private final RestTemplate batchInferenceRestTemplate;
+
+    public PythonApiCrowdCounter(
+            @Value("${python.api.url}") String pythonApiUrl,
+            @Value("${python.api.connect-timeout-ms:3000}") int connectTimeoutMillis,
+            @Value("${python.api.read-timeout-ms:15000}") int readTimeoutMillis,
+            @Value("${python.api.batch-read-timeout-ms:30000}") int batchReadTimeoutMillis) {
+        this.pythonApiUrl = pythonApiUrl;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.batchReadTimeoutMillis = batchReadTimeoutMillis;
+        this.inferenceRestTemplate = restTemplate(connectTimeoutMillis, readTimeoutMillis);
+        this.batchInferenceRestTemplate = restTemplate(connectTimeoutMillis, batchReadTimeoutMillis);
+    }
+
+    private static RestTemplate restTemplate(int connectTimeoutMillis, int readTimeoutMillis) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(connectTimeoutMillis);
+        factory.setReadTimeout(readTimeoutMillis);
+        return new RestTemplate(factory);
+    }
+
+    // 단건 호출 (이미지 Base64 JSON 전송 → 사람 수 응답 수신)
+    @Override
+    public int count(String cctvId, byte[] jpeg) {
+        Map<String, String> requestBody = Map.of("image", Base64.getEncoder().encodeToString(jpeg));
+        ResponseEntity<CongestionDto.CrowdAnalysisResult> response =
+                inferenceRestTemplate.postForEntity(
+                        pythonApiUrl + "/analyze_crowd",
+                        requestBody,
+                        CongestionDto.CrowdAnalysisResult.class
+                );
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new IllegalStateException("Python API failure: " + response.getStatusCode());
+        }
+        int personCount = response.getBody().getPersonCount();
+        log.info("CCTV ID: {}, Detected Persons: {}", cctvId, personCount);
+        return personCount;
+    }
+
+    // 배치 호출 (JPEG 원본을 multipart로 전송 → CCTV ID별 사람 수 응답 수신, 요청 자체가 실패하면 예외)
+    // 남은 시간이 설정된 읽기 제한 시간보다 짧으면 이번 요청만 그 시간으로 줄인 클라이언트 사용
+    @Override
+    public Map<String, Integer> countBatch(Map<String, byte[]> frames, long timeoutMillis) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        for (Map.Entry<String, byte[]> frame : frames.entrySet()) {
+            String cctvId = frame.getKey();
+            HttpHeaders partHeaders = new HttpHeaders();
+            partHeaders.setContentType(MediaType.IMAGE_JPEG);
+            partHeaders.setContentDispositionFormData(cctvId, cctvId + ".jpg");
+            body.add(cctvId, new HttpEntity<>(frame.getValue(), partHeaders));
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        RestTemplate client = timeoutMillis >= (long) connectTimeoutMillis + batchReadTimeoutMillis
+                ? batchInferenceRestTemplate
+                : restTemplate(connectTimeoutMillis, (int) Math.max(1, timeoutMillis - connectTimeoutMillis));
+        ResponseEntity<CongestionDto.BatchAnalysisResult> response =
+                client.postForEntity(
+                        pythonApiUrl + "/analyze_crowd_batch",
+                        new HttpEntity<>(body, headers),
+                        CongestionDto.BatchAnalysisResult.class
+                );
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new IllegalStateException("Python API failure: " + response.getStatusCode());
+        }
+
+        CongestionDto.BatchAnalysisResult result = response.getBody();
+        Map<String, Integer> counts = new HashMap<>();
+        if (result.getResults() != null) {
+            result.getResults().forEach((cctvId, r) -> counts.put(cctvId, r.getPersonCount()));
+        }
+        if (result.getErrors() != null && !result.getErrors().isEmpty()) {
+            log.warn("Batch inference returned errors, retrying individually: {}", result.getErrors());
+        }
+        log.info("Batch inference: {} frames sent, {} counted ({})", frames.size(), counts.size(), counts);
+        return counts;
+    }
+
+    @Override
+    public long countTimeoutMillis() {
+        return (long) connectTimeoutMillis + readTimeoutMillis;
+    }
+
+    @Override
+    public boolean prefersBatch() {
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return "python";
+    }
+}
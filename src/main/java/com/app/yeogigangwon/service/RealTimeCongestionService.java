@@ -1,25 +1,69 @@
 package com.app.yeogigangwon.service;
 
+import com.app.yeogigangwon.event.BeachCongestionChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.OptionalDouble;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * YOLO 인원수 + 면적 기반 실시간 혼잡도 계산(EMA + 히스테리시스)
  * 기존 DB/로직은 건드리지 않고, 실시간 라인만 별도로 제공
+ * 해변별 상태는 불변 record로 두고 ConcurrentHashMap.compute로 교체하므로 전역 잠금이 없음
+ * 교체된 상태는 RealTimeStateFile에 바로 기록해 재시작 후에도 이어서 사용
  */
 @Service
 public class RealTimeCongestionService {
-    // 개별 해변의 실시간 상태를 표현하는 내부 클래스
-    public static class State {
-        public double emaDensity = 0.0; // 혼잡도 지표(명/㎡)의 EMA 값
-        public String level = "여유"; // 현재 혼잡도 상태 ("여유", "보통", "혼잡")
-        public long lastSwitchMs = 0L; // 마지막 상태 전환 시각(밀리초)
+    /**
+     * 개별 해변의 실시간 상태 (불변, 갱신할 때마다 새 객체로 교체)
+     *
+     * @param emaDensity   혼잡도 지표(명/㎡)의 EMA 값
+     * @param level        현재 혼잡도 상태 ("여유", "보통", "혼잡")
+     * @param lastSwitchMs 마지막 상태 전환 시각(밀리초)
+     * @param lastSampleMs 마지막으로 반영한 관측 시각(밀리초, 이보다 이른 관측은 무시)
+     */
+    public record State(double emaDensity, String level, long lastSwitchMs, long lastSampleMs) {
+        static final State INITIAL = new State(0.0, "여유", 0L, 0L);
+
+        // 새 관측치(d, 관측 시각 at)를 반영한 다음 상태: EMA 갱신 후 최소 유지 시간이 지났으면 히스테리시스 임계치로 전환
+        State next(double d, long at) {
+            if (at < lastSampleMs) {
+                return this; // 늦게 도착한 관측 (시간 순서 보장)
+            }
+            double x = ALPHA * d + (1 - ALPHA) * emaDensity;
+            if (at - lastSwitchMs < MIN_HOLD_MS) {
+                return new State(x, level, lastSwitchMs, at);
+            }
+            String nextLevel = switch (level) {
+                case "여유" -> x >= UP_YB ? "보통" : level;
+                case "보통" -> x >= UP_BH ? "혼잡" : (x <= DN_BY ? "여유" : level);
+                case "혼잡" -> x <= DN_HB ? "보통" : level;
+                default -> level;
+            };
+            return new State(x, nextLevel, nextLevel.equals(level) ? lastSwitchMs : at, at);
+        }
     }
 
+    /**
+     * YOLO 관측 한 건
+     *
+     * @param persons      탐지된 사람 수
+     * @param roiRatio     ROI(관심영역) 비율 (null 또는 <=0이면 1.0)
+     * @param capturedAtMs 관측 시각(밀리초)
+     */
+    public record Observation(int persons, Double roiRatio, long capturedAtMs) {}
+
     private final AreaMapService areas; // 해변별 면적 데이터를 제공하는 서비스
-    private final Map<String, State> states = new ConcurrentHashMap<>(); // 해변 ID별 실시간 상태 저장소
+    private final ApplicationEventPublisher eventPublisher; // 상태 변경 알림 (SSE 스트림 등)
+    private final RealTimeStateFile stateFile; // 재시작 시 상태 복원용 메모리 매핑 파일
+    private final Map<String, State> states = new ConcurrentHashMap<>(); // 해변 ID별 실시간 상태 저장소 (해변 단위로만 잠금)
 
     // 파라미터(해변별 튜닝 가능)
     private static final double ALPHA = 0.3;
@@ -28,9 +72,18 @@ public class RealTimeCongestionService {
     private static final double UP_BH = 0.060; // 보통→혼잡
     private static final double DN_BY = 0.020; // 보통→여유
     private static final double DN_HB = 0.050; // 혼잡→보통
+    private static final double EMA_EPSILON = 1e-4; // 응답 표시 정밀도(소수 4자리) 미만의 EMA 변화는 알리지 않음
 
-    public RealTimeCongestionService(AreaMapService areas) {
+    // 대한민국 표준시 타임존 상수
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    public RealTimeCongestionService(AreaMapService areas, ApplicationEventPublisher eventPublisher,
+                                     RealTimeStateFile stateFile) {
         this.areas = areas;
+        this.eventPublisher = eventPublisher;
+        this.stateFile = stateFile;
+        // 직전 실행의 상태로 시작 (EMA/히스테리시스를 처음부터 다시 수렴시키지 않음)
+        this.states.putAll(stateFile.load());
     }
 
     /**
@@ -40,40 +93,66 @@ public class RealTimeCongestionService {
      * - 혼잡도 계산: (사람 수) / (해변면적 * ROI)
      * - EMA 적용으로 값의 급격한 변동을 완화
      * - 최소 유지 시간(MIN_HOLD_MS) 조건과 히스테리시스 임계치를 적용하여 상태 전환
+     * - 상태나 EMA가 바뀌면 BeachCongestionChangedEvent 발행
      */
-    public synchronized State update(String beachId, int persons, Double roiRatioNullable) {
-        double roi = (roiRatioNullable == null || roiRatioNullable <= 0) ? 1.0 : roiRatioNullable;
-        double area = Math.max(areas.getSandAreaM2(beachId) * roi, 1e-6);
-        double d = persons / area; // 명/㎡
+    public State update(String beachId, int persons, Double roiRatioNullable) {
+        return updateAll(beachId, List.of(new Observation(persons, roiRatioNullable, System.currentTimeMillis())));
+    }
 
-        long now = System.currentTimeMillis();
-        State st = states.computeIfAbsent(beachId, k -> new State());
-        // EMA(지수 이동 평균) 업데이트
-        st.emaDensity = ALPHA * d + (1 - ALPHA) * st.emaDensity;
+    /**
+     * 한 해변의 관측 여러 건을 시각 순서대로 한 번에 반영 (변경 알림은 마지막 상태 기준 한 번)
+     * 이미 반영한 관측보다 이른 관측은 무시
+     */
+    public State updateAll(String beachId, List<Observation> observations) {
+        if (observations.isEmpty()) {
+            return get(beachId);
+        }
+        List<Observation> ordered = new ArrayList<>(observations);
+        ordered.sort(Comparator.comparingLong(Observation::capturedAtMs));
+        OptionalDouble area = areas.findSandAreaM2(beachId);
+        if (area.isEmpty()) {
+            return get(beachId); // 면적을 모르는 해변은 밀도를 계산할 수 없어 반영하지 않음 (지표로 집계됨)
+        }
+        double sandArea = area.getAsDouble();
 
-        if (now - st.lastSwitchMs >= MIN_HOLD_MS) {
-            double x = st.emaDensity;
-            switch (st.level) {
-                case "여유":
-                    if (x >= UP_YB) { st.level = "보통"; st.lastSwitchMs = now; }
-                    break;
-                case "보통":
-                    if (x >= UP_BH) { st.level = "혼잡"; st.lastSwitchMs = now; }
-                    else if (x <= DN_BY) { st.level = "여유"; st.lastSwitchMs = now; }
-                    break;
-                case "혼잡":
-                    if (x <= DN_HB) { st.level = "보통"; st.lastSwitchMs = now; }
-                    break;
+        // 해변별 원자적 교체 (다른 해변 갱신과 경합하지 않음), 이전 상태는 변경 알림 비교용으로 보관
+        State[] prev = new State[1];
+        State st = states.compute(beachId, (k, cur) -> {
+            prev[0] = cur != null ? cur : State.INITIAL;
+            State next = prev[0];
+            for (Observation o : ordered) {
+                double roi = (o.roiRatio() == null || o.roiRatio() <= 0) ? 1.0 : o.roiRatio();
+                double d = o.persons() / Math.max(sandArea * roi, 1e-6); // 명/㎡
+                next = next.next(d, o.capturedAtMs());
+            }
+            // 해변 단위 잠금 안에서 기록해 파일 슬롯도 상태 교체 순서를 따름
+            if (next != prev[0]) {
+                stateFile.write(k, next);
             }
+            return next;
+        });
+
+        // 상태나 EMA가 바뀐 경우에만 알림
+        if (!st.level().equals(prev[0].level()) || Math.abs(st.emaDensity() - prev[0].emaDensity()) >= EMA_EPSILON) {
+            int persons = ordered.get(ordered.size() - 1).persons();
+            eventPublisher.publishEvent(new BeachCongestionChangedEvent(
+                    beachId, "realtime", st.level(), persons, st.emaDensity(), null, LocalDateTime.now(KST)));
         }
         return st;
     }
 
     /**
      * 특정 해변(beachId)의 현재 상태(State)를 반환한다.
-     * - 해당 해변이 아직 갱신된 적 없으면 새 State 객체를 생성해서 반환
+     * - 잠금 없이 마지막으로 교체된 불변 상태를 그대로 반환 (갱신된 적 없으면 초기 상태)
      */
     public State get(String beachId) {
-        return states.computeIfAbsent(beachId, k -> new State());
+        return states.getOrDefault(beachId, State.INITIAL);
+    }
+
+    /**
+     * 갱신된 적 있는 모든 해변의 현재 상태 (복사본)
+     */
+    public Map<String, State> snapshot() {
+        return Map.copyOf(states);
     }
 }
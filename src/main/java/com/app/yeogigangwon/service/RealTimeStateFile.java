@@ -0,0 +1,227 @@
+package com.app.yeogigangwon.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 실시간 혼잡도 상태 파일 (메모리 매핑, 고정 레이아웃)
+ * 상태가 바뀔 때마다 해변 슬롯에 바로 기록하고, 재시작 시 읽어 EMA/등급을 이어서 사용
+ * 기록은 페이지 캐시에 대한 메모리 쓰기라 갱신 경로에 I/O 대기가 없음 (디스크 반영은 주기적으로 force)
+ *
+ * 레이아웃 (big-endian)
+ *   헤더 16B: magic "RTCS" | version(int) | slotCount(int) | reserved(int)
+ *   슬롯 64B: seq(int, 쓰는 중이면 홀수) | idLength(byte) | beachId(UTF-8, 최대 31B)
+ *            | emaDensity(double) | level(byte) | lastSwitchMs(long) | lastSampleMs(long) | 여유 공간
+ */
+@Component
+public class RealTimeStateFile {
+
+    private static final Logger log = LoggerFactory.getLogger(RealTimeStateFile.class);
+
+    private static final int MAGIC = 0x52544353; // "RTCS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 64;
+    private static final int MAX_ID_BYTES = 31;
+
+    // 슬롯 내 필드 위치
+    private static final int OFF_SEQ = 0;
+    private static final int OFF_ID_LEN = 4;
+    private static final int OFF_ID = 5;
+    private static final int OFF_EMA = 36;
+    private static final int OFF_LEVEL = 44;
+    private static final int OFF_SWITCH = 45;
+    private static final int OFF_SAMPLE = 53;
+
+    // 등급 코드 (파일에는 문자열 대신 1바이트로 저장)
+    private static final List<String> LEVELS = List.of("여유", "보통", "혼잡");
+
+    private final Path path;
+    private final int slotCount;
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private MappedByteBuffer buffer; // 열지 못하면 null (상태 저장 없이 동작)
+    private FileChannel channel;
+    private volatile boolean dirty;
+
+    public RealTimeStateFile(@Value("${congestion.realtime.state-file:./data/realtime-congestion.state}") String path,
+                             @Value("${congestion.realtime.state-slots:256}") int slotCount) {
+        this.path = Path.of(path);
+        this.slotCount = slotCount;
+        open();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (buffer != null) {
+            buffer.force();
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close real-time state file: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 파일에 남아 있는 해변별 상태 읽기
+     * 쓰는 도중 종료됐거나 값이 잘못된 슬롯, 같은 해변의 중복 슬롯은 비워서 새 해변에 다시 배정될 수 있게 함
+     */
+    public synchronized Map<String, RealTimeCongestionService.State> load() {
+        Map<String, RealTimeCongestionService.State> states = new HashMap<>();
+        if (buffer == null) {
+            return states;
+        }
+        int cleared = 0;
+        for (int i = 0; i < slotCount; i++) {
+            int base = HEADER_SIZE + i * SLOT_SIZE;
+            int seq = buffer.getInt(base + OFF_SEQ);
+            int idLength = buffer.get(base + OFF_ID_LEN);
+            if (idLength == 0 && seq == 0) {
+                continue;  // 빈 슬롯
+            }
+            if (idLength < 0 || idLength > MAX_ID_BYTES || (seq & 1) == 1) {
+                clear(base);
+                cleared++;
+                continue;
+            }
+            byte[] id = new byte[idLength];
+            buffer.get(base + OFF_ID, id);
+            int level = buffer.get(base + OFF_LEVEL);
+            String beachId = new String(id, StandardCharsets.UTF_8);
+            if (idLength == 0 || level < 0 || level >= LEVELS.size() || slots.containsKey(beachId)) {
+                clear(base);
+                cleared++;
+                continue;
+            }
+            slots.put(beachId, i);
+            states.put(beachId, new RealTimeCongestionService.State(
+                    buffer.getDouble(base + OFF_EMA),
+                    LEVELS.get(level),
+                    buffer.getLong(base + OFF_SWITCH),
+                    buffer.getLong(base + OFF_SAMPLE)));
+        }
+        if (cleared > 0) {
+            dirty = true;
+            log.warn("Cleared {} torn or invalid real-time state slots in {}", cleared, path);
+        }
+        log.info("Loaded real-time congestion state for {} beaches from {}", states.size(), path);
+        return states;
+    }
+
+    /**
+     * 해변 상태 기록 (같은 해변에 대한 호출은 호출자가 순서를 보장, 다른 해변끼리는 슬롯이 달라 동시 기록 가능)
+     */
+    public void write(String beachId, RealTimeCongestionService.State state) {
+        if (buffer == null) {
+            return;
+        }
+        Integer slot = slots.get(beachId);
+        if (slot == null) {
+            slot = allocate(beachId);
+            if (slot == null) {
+                return;
+            }
+        }
+        int base = HEADER_SIZE + slot * SLOT_SIZE;
+        int seq = buffer.getInt(base + OFF_SEQ);
+        buffer.putInt(base + OFF_SEQ, seq | 1);               // 쓰는 중 표시
+        buffer.putDouble(base + OFF_EMA, state.emaDensity());
+        buffer.put(base + OFF_LEVEL, (byte) Math.max(0, LEVELS.indexOf(state.level())));
+        buffer.putLong(base + OFF_SWITCH, state.lastSwitchMs());
+        buffer.putLong(base + OFF_SAMPLE, state.lastSampleMs());
+        buffer.putInt(base + OFF_SEQ, (seq | 1) + 1);         // 완료 (짝수)
+        dirty = true;
+    }
+
+    /**
+     * 변경된 페이지를 주기적으로 디스크에 반영 (프로세스 재시작은 페이지 캐시로 충분, OS 장애 대비)
+     */
+    @Scheduled(fixedDelayString = "${congestion.realtime.state-force-ms:10000}")
+    public void force() {
+        if (buffer != null && dirty) {
+            dirty = false;
+            buffer.force();
+        }
+    }
+
+    // 새 해변에 빈 슬롯(idLength == 0) 배정 (ID를 기록해 두면 이후 load에서 같은 슬롯을 다시 사용)
+    // 슬롯은 쓰는 중(seq 홀수) 상태로 배정되고 첫 write가 끝나야 완료되므로, 그 사이 종료되면 load에서 비워짐
+    private synchronized Integer allocate(String beachId) {
+        Integer existing = slots.get(beachId);
+        if (existing != null) {
+            return existing;
+        }
+        byte[] id = beachId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_BYTES) {
+            log.warn("Real-time state for {} not persisted (id longer than {} bytes)", beachId, MAX_ID_BYTES);
+            return null;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = HEADER_SIZE + slot * SLOT_SIZE;
+            if (buffer.get(base + OFF_ID_LEN) != 0) {
+                continue;
+            }
+            buffer.putInt(base + OFF_SEQ, 1);
+            buffer.put(base + OFF_ID, id);
+            buffer.put(base + OFF_ID_LEN, (byte) id.length);
+            slots.put(beachId, slot);
+            return slot;
+        }
+        log.warn("Real-time state for {} not persisted (no free slot of {})", beachId, slotCount);
+        return null;
+    }
+
+    // 슬롯 전체를 0으로 (빈 슬롯)
+    private void clear(int base) {
+        for (int i = 0; i < SLOT_SIZE; i++) {
+            buffer.put(base + i, (byte) 0);
+        }
+    }
+
+    private void open() {
+        long size = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean fresh = channel.size() == 0;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (fresh || !validHeader(buffer)) {
+                // 새 파일이거나 레이아웃이 다르면 비우고 헤더 기록
+                for (int i = 0; i < size; i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, slotCount);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Real-time state file {} unavailable, state will not survive restarts: {}", path, e.getMessage());
+            buffer = null;
+        }
+    }
+
+    private boolean validHeader(ByteBuffer b) {
+        return b.getInt(0) == MAGIC && b.getInt(4) == VERSION && b.getInt(8) == slotCount;
+    }
+}
@@ -0,0 +1,112 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.dto.WeatherAlert;
+import com.app.yeogigangwon.event.WeatherAlertsChangedEvent;
+import com.app.yeogigangwon.fetch.AlertFetcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 기상 특보 피드 서비스
+ * 백그라운드에서 주기적으로 특보를 조회해 메모리에 보관하고,
+ * 내용 해시가 바뀐 경우에만 교체 후 변경 이벤트를 발행
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WeatherAlertService {
+
+    // 특보 조회 대상 지역
+    private static final String REGION_NAME = "강원도";
+
+    private final AlertFetcher alertFetcher;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 현재 특보 상태 (통째로 교체되는 불변 스냅샷)
+    private volatile Snapshot current = new Snapshot(List.of(), hash(List.of()), null);
+
+    /**
+     * 특보 스냅샷
+     *
+     * @param alerts    특보 목록 (불변)
+     * @param hash      특보 목록 내용 해시
+     * @param checkedAt 마지막 조회 성공 시각 (아직 없으면 null)
+     */
+    public record Snapshot(List<WeatherAlert> alerts, String hash, LocalDateTime checkedAt) {
+    }
+
+    /**
+     * 기상 특보 주기 조회 (기본 10분)
+     * 조회 실패 시 기존 목록을 유지
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${weather.alert.poll-interval-ms:600000}")
+    public void pollAlerts() {
+        List<WeatherAlert> fetched;
+        try {
+            fetched = List.copyOf(alertFetcher.requestWeatherAlerts(REGION_NAME));
+        } catch (Exception e) {
+            log.warn("기상 특보 조회 실패, 기존 {}건 유지: {}", current.alerts().size(), e.getMessage());
+            return;
+        }
+
+        Snapshot previous = current;
+        String newHash = hash(fetched);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (newHash.equals(previous.hash())) {
+            // 내용이 같으면 목록은 그대로 두고 조회 시각만 갱신
+            current = new Snapshot(previous.alerts(), previous.hash(), now);
+            log.debug("기상 특보 변경 없음 ({}건)", fetched.size());
+            return;
+        }
+
+        current = new Snapshot(fetched, newHash, now);
+        log.info("기상 특보 변경 감지: {}건 → {}건", previous.alerts().size(), fetched.size());
+        eventPublisher.publishEvent(new WeatherAlertsChangedEvent(previous.alerts(), fetched, newHash, now));
+    }
+
+    /**
+     * 현재 기상 특보 목록 (불변, 외부 호출 없음)
+     */
+    public List<WeatherAlert> getCurrentAlerts() {
+        return current.alerts();
+    }
+
+    /**
+     * 현재 특보 스냅샷
+     */
+    public Snapshot getSnapshot() {
+        return current;
+    }
+
+    /**
+     * 특보 목록의 내용 해시 (SHA-256, 순서 포함)
+     */
+    private static String hash(List<WeatherAlert> alerts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (WeatherAlert alert : alerts) {
+                digest.update(Objects.toString(alert.getTitle(), "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Objects.toString(alert.getMessage(), "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Objects.toString(alert.getTime(), "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다", e);
+        }
+    }
+}
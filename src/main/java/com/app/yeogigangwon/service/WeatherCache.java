@@ -0,0 +1,76 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.dto.WeatherInfo;
+import com.app.yeogigangwon.util.GridConverter.GridCoordinate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 격자(nx, ny)별 날씨 정보 인메모리 캐시
+ * 갱신 시점 판단과 갱신 중복 방지만 담당하고, 실제 조회/갱신은 WeatherService가 수행
+ */
+@Component
+public class WeatherCache {
+
+    /**
+     * 캐시 항목 (불변)
+     */
+    public static class Entry {
+        public final WeatherInfo info;          // 날씨 정보
+        public final LocalDateTime fetchedAt;   // 기상청에서 받아온 시각
+
+        public Entry(WeatherInfo info, LocalDateTime fetchedAt) {
+            this.info = info;
+            this.fetchedAt = fetchedAt;
+        }
+
+        /** 기준 시각 대비 데이터 나이 (분) */
+        public long ageMinutes(LocalDateTime now) {
+            return Math.max(0, Duration.between(fetchedAt, now).toMinutes());
+        }
+    }
+
+    // 격자별 최신 항목
+    private final Map<GridCoordinate, Entry> entries = new ConcurrentHashMap<>();
+    // 백그라운드 갱신이 진행 중인 격자
+    private final Set<GridCoordinate> refreshing = ConcurrentHashMap.newKeySet();
+
+    /** 캐시 항목 조회 (없으면 null) */
+    public Entry get(GridCoordinate grid) {
+        return entries.get(grid);
+    }
+
+    /** 캐시 항목 저장 (이미 더 최신 항목이 있으면 유지) */
+    public Entry put(GridCoordinate grid, WeatherInfo info, LocalDateTime fetchedAt) {
+        Entry candidate = new Entry(info, fetchedAt);
+        return entries.merge(grid, candidate,
+                (prev, next) -> next.fetchedAt.isBefore(prev.fetchedAt) ? prev : next);
+    }
+
+    /** 백그라운드 갱신 시작 표시 (이미 진행 중이면 false) */
+    public boolean tryBeginRefresh(GridCoordinate grid) {
+        return refreshing.add(grid);
+    }
+
+    /** 백그라운드 갱신 종료 표시 */
+    public void endRefresh(GridCoordinate grid) {
+        refreshing.remove(grid);
+    }
+
+    /** 지정 시각 이전에 받아온 항목 제거 */
+    public int evictFetchedBefore(LocalDateTime threshold) {
+        int before = entries.size();
+        entries.values().removeIf(e -> e.fetchedAt.isBefore(threshold));
+        return before - entries.size();
+    }
+
+    /** 현재 캐시된 격자 수 */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,289 @@
+package com.app.yeogigangwon.service;
+
+import com.app.yeogigangwon.domain.WeatherForecast;
+import com.app.yeogigangwon.event.ForecastTimelineSavedEvent;
+import com.app.yeogigangwon.event.WeatherRefreshCompletedEvent;
+import com.app.yeogigangwon.repository.WeatherForecastRepository;
+import com.app.yeogigangwon.util.GridConverter;
+import com.app.yeogigangwon.util.GridConverter.GridCoordinate;
+import com.app.yeogigangwon.util.SingleFlight;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 강원도 전체 기상청 격자의 예보를 압축 바이너리 래스터로 제공하는 서비스
+ * 지도 화면이 영역마다 /api/weather를 호출하는 대신 한 번에 받아 그릴 수 있도록 함
+ *
+ * 래스터는 강원도 경계 상자의 모든 격자 칸을 담지만, 값은 WeatherUpdateScheduler가 갱신하는 격자
+ * (관광지/CCTV 해변이 있는 격자)에만 있고 나머지 칸은 결측값이다. 경계 상자 전체를 분당 호출 한도 안에서
+ * 15분마다 갱신할 수는 없으므로, 클라이언트는 헤더의 filledCells로 채워진 칸 수를 확인하고
+ * 결측 칸은 주변 값으로 보간하거나 비워 두어야 한다.
+ *
+ * 래스터는 예보 시각별로 미리 만들어 둔 바이트를 그대로 내려준다.
+ * 격자별 예보 저장은 표시만 해 두고, 날씨 갱신 주기가 끝났을 때 한 번 무효화하여
+ * 캐시에 있던 예보 시각의 래스터를 갱신 스레드에서 미리 다시 만든다 (요청 경로에서는 없는 시각만 생성).
+ *
+ * 형식 (big-endian)
+ * <pre>
+ * 헤더 32바이트
+ *   0  magic        "GWRS"
+ *   4  version      u8   (1)
+ *   5  varCount     u8   (5)
+ *   6  filledCells  u16  (값이 있는 격자 수)
+ *   8  nxMin        i16
+ *  10  nyMin        i16
+ *  12  width        i16  (nx 방향 격자 수)
+ *  14  height       i16  (ny 방향 격자 수)
+ *  16  fcstEpoch    i64  (예보 시각, epoch 초, Asia/Seoul 기준)
+ *  24  builtEpoch   i64  (래스터 생성 시각, epoch 초)
+ * 본문 (변수별 평면, 격자 순서: ny 오름차순 행 → 행 안에서 nx 오름차순)
+ *   TMP  i8   기온 (°C)               결측 -128
+ *   POP  i8   강수확률 (%)            결측 -128
+ *   SKY  i8   하늘 상태 (1/3/4)       결측 -128
+ *   PTY  i8   강수 형태 (0~4)         결측 -128
+ *   WSD  i16  풍속 (0.1 m/s 단위)     결측 -32768
+ * </pre>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WeatherRasterService {
+
+    // 현재 정시 기준 조회 가능한 최대 시간 (단기예보 범위)
+    public static final int MAX_HOUR_OFFSET = 72;
+
+    private static final byte[] MAGIC = "GWRS".getBytes(StandardCharsets.US_ASCII);
+    private static final byte VERSION = 1;
+    private static final byte VAR_COUNT = 5;
+    private static final int HEADER_BYTES = 32;
+    private static final int BUILT_AT_OFFSET = 24;
+    private static final byte MISSING_INT8 = Byte.MIN_VALUE;
+    private static final short MISSING_INT16 = Short.MIN_VALUE;
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");  // 예보 시각 기준 시간대
+
+    // 강원도 영역을 덮는 격자 범위 (위경도 경계를 따라 투영해서 계산)
+    private static final int NX_MIN, NX_MAX, NY_MIN, NY_MAX;
+    private static final int WIDTH, HEIGHT, CELLS;
+
+    static {
+        int nxMin = Integer.MAX_VALUE, nxMax = Integer.MIN_VALUE;
+        int nyMin = Integer.MAX_VALUE, nyMax = Integer.MIN_VALUE;
+        double step = 0.01;
+        for (double lat = GridConverter.GANGWON_LAT_MIN; lat <= GridConverter.GANGWON_LAT_MAX; lat += step) {
+            for (double lon : new double[]{GridConverter.GANGWON_LON_MIN, GridConverter.GANGWON_LON_MAX}) {
+                GridCoordinate g = GridConverter.convertToGrid(lat, lon);
+                nxMin = Math.min(nxMin, g.nx); nxMax = Math.max(nxMax, g.nx);
+                nyMin = Math.min(nyMin, g.ny); nyMax = Math.max(nyMax, g.ny);
+            }
+        }
+        for (double lon = GridConverter.GANGWON_LON_MIN; lon <= GridConverter.GANGWON_LON_MAX; lon += step) {
+            for (double lat : new double[]{GridConverter.GANGWON_LAT_MIN, GridConverter.GANGWON_LAT_MAX}) {
+                GridCoordinate g = GridConverter.convertToGrid(lat, lon);
+                nxMin = Math.min(nxMin, g.nx); nxMax = Math.max(nxMax, g.nx);
+                nyMin = Math.min(nyMin, g.ny); nyMax = Math.max(nyMax, g.ny);
+            }
+        }
+        NX_MIN = nxMin; NX_MAX = nxMax;
+        NY_MIN = nyMin; NY_MAX = nyMax;
+        WIDTH = nxMax - nxMin + 1;
+        HEIGHT = nyMax - nyMin + 1;
+        CELLS = WIDTH * HEIGHT;
+    }
+
+    /**
+     * 미리 만들어 둔 래스터 (불변)
+     *
+     * @param raw          압축하지 않은 바이트
+     * @param gzip         gzip 압축 바이트
+     * @param etag         내용 기준 ETag (생성 시각은 제외)
+     * @param fcstDateTime 예보 시각
+     * @param version      생성 당시 래스터 버전 (갱신 주기 단위)
+     */
+    public record Raster(byte[] raw, byte[] gzip, String etag, LocalDateTime fcstDateTime, long version) {}
+
+    private final WeatherForecastRepository weatherForecastRepository;
+
+    // 갱신 주기마다 한 번 증가 (래스터 무효화 기준)
+    private final AtomicLong forecastVersion = new AtomicLong();
+
+    // 마지막 무효화 이후 범위 안 격자의 예보가 저장되었는지
+    private final AtomicBoolean forecastChanged = new AtomicBoolean();
+
+    // 예보 시각별 래스터
+    private final Map<LocalDateTime, Raster> rasters = new ConcurrentHashMap<>();
+
+    // 같은 예보 시각 래스터를 동시에 여러 번 만들지 않도록 합침
+    private final SingleFlight<LocalDateTime, Raster> builds = new SingleFlight<>();
+
+    /**
+     * 범위 안 격자의 예보가 저장되면 변경 표시만 함 (무효화는 갱신 주기 완료 시 한 번)
+     */
+    @EventListener
+    public void onForecastSaved(ForecastTimelineSavedEvent event) {
+        if (event.nx() >= NX_MIN && event.nx() <= NX_MAX && event.ny() >= NY_MIN && event.ny() <= NY_MAX) {
+            forecastChanged.set(true);
+        }
+    }
+
+    /**
+     * 날씨 갱신 주기가 끝나면 래스터를 한 번 무효화하고 캐시에 있던 예보 시각을 미리 다시 생성
+     * (주기를 끝낸 갱신 스레드에서 실행되므로 요청은 그동안 기존 래스터를 받음)
+     */
+    @EventListener
+    public void onRefreshCompleted(WeatherRefreshCompletedEvent event) {
+        if (!forecastChanged.getAndSet(false)) {
+            return;
+        }
+        long version = forecastVersion.incrementAndGet();
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        rasters.keySet().removeIf(t -> t.isBefore(currentHour));
+
+        long started = System.nanoTime();
+        int rebuilt = 0;
+        for (LocalDateTime target : List.copyOf(rasters.keySet())) {
+            try {
+                buildIfStale(target, version, currentHour);
+                rebuilt++;
+            } catch (RuntimeException e) {
+                log.warn("날씨 래스터 재생성 실패 - 예보 시각: {}, {}", target, e.getMessage());
+            }
+        }
+        log.info("날씨 갱신 주기 완료로 래스터 {}개 재생성 (버전 {}), {}ms",
+                rebuilt, version, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * 현재 정시 기준 hourOffset 시간 뒤 예보 래스터 조회
+     *
+     * @param hourOffset 0 = 현재 정시, 최대 MAX_HOUR_OFFSET
+     * @return 래스터
+     */
+    public Raster getRaster(int hourOffset) {
+        if (hourOffset < 0 || hourOffset > MAX_HOUR_OFFSET) {
+            throw new IllegalArgumentException("hour는 0 ~ " + MAX_HOUR_OFFSET + " 범위여야 합니다: " + hourOffset);
+        }
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime target = currentHour.plusHours(hourOffset);
+
+        // 재생성 중인 래스터가 있어도 기존 것을 그대로 내려줌 (교체는 갱신 주기 완료 시)
+        Raster cached = rasters.get(target);
+        if (cached != null) {
+            return cached;
+        }
+        return buildIfStale(target, forecastVersion.get(), currentHour);
+    }
+
+    /**
+     * 해당 예보 시각의 래스터가 version보다 오래되었으면 다시 생성해서 교체
+     */
+    private Raster buildIfStale(LocalDateTime target, long version, LocalDateTime currentHour) {
+        return builds.execute(target, () -> {
+            Raster current = rasters.get(target);
+            if (current != null && current.version() >= version) {
+                return current;
+            }
+            Raster built = build(target, version);
+            rasters.put(target, built);
+            // 지나간 시각의 래스터는 정리
+            rasters.keySet().removeIf(t -> t.isBefore(currentHour));
+            return built;
+        });
+    }
+
+    /**
+     * 격자 범위 전체의 예보를 한 번에 읽어 래스터 생성
+     */
+    private Raster build(LocalDateTime target, long version) {
+        long started = System.nanoTime();
+        List<WeatherForecast> rows = weatherForecastRepository
+                .findByFcstDateTimeAndNxBetweenAndNyBetweenOrderByBaseDateTimeDesc(
+                        target, NX_MIN, NX_MAX, NY_MIN, NY_MAX);
+
+        byte[] tmp = new byte[CELLS], pop = new byte[CELLS], sky = new byte[CELLS], pty = new byte[CELLS];
+        short[] wsd = new short[CELLS];
+        Arrays.fill(tmp, MISSING_INT8);
+        Arrays.fill(pop, MISSING_INT8);
+        Arrays.fill(sky, MISSING_INT8);
+        Arrays.fill(pty, MISSING_INT8);
+        Arrays.fill(wsd, MISSING_INT16);
+        boolean[] filled = new boolean[CELLS];
+        int filledCells = 0;
+
+        // 최신 발표가 먼저 오므로 격자별 첫 행만 사용
+        for (WeatherForecast f : rows) {
+            int idx = (f.getNy() - NY_MIN) * WIDTH + (f.getNx() - NX_MIN);
+            if (filled[idx]) {
+                continue;
+            }
+            filled[idx] = true;
+            filledCells++;
+            tmp[idx] = toInt8(f.getTmp());
+            pop[idx] = toInt8(f.getPop());
+            sky[idx] = toInt8(f.getSky());
+            pty[idx] = toInt8(f.getPty());
+            wsd[idx] = f.getWsd() == null ? MISSING_INT16
+                    : (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, Math.round(f.getWsd() * 10)));
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + CELLS * 4 + CELLS * 2);
+        buf.put(MAGIC).put(VERSION).put(VAR_COUNT).putShort((short) filledCells)
+                .putShort((short) NX_MIN).putShort((short) NY_MIN)
+                .putShort((short) WIDTH).putShort((short) HEIGHT)
+                .putLong(target.atZone(ZONE).toEpochSecond())
+                .putLong(Instant.now().getEpochSecond());
+        buf.put(tmp).put(pop).put(sky).put(pty);
+        for (short v : wsd) {
+            buf.putShort(v);
+        }
+        byte[] raw = buf.array();
+
+        // 생성 시각을 제외한 내용으로 ETag 계산 (내용이 같으면 재생성해도 304 가능)
+        CRC32 crc = new CRC32();
+        crc.update(raw, 0, BUILT_AT_OFFSET);
+        crc.update(raw, HEADER_BYTES, raw.length - HEADER_BYTES);
+        String etag = "\"" + Long.toHexString(crc.getValue()) + "\"";
+
+        byte[] gzip = gzip(raw);
+        log.info("날씨 래스터 생성 - 예보 시각: {}, 격자 {}x{}, 값 있는 격자 {}개, {}B (gzip {}B), {}ms",
+                target, WIDTH, HEIGHT, filledCells, raw.length, gzip.length,
+                (System.nanoTime() - started) / 1_000_000);
+        return new Raster(raw, gzip, etag, target, version);
+    }
+
+    private static byte toInt8(Integer value) {
+        if (value == null) {
+            return MISSING_INT8;
+        }
+        return (byte) Math.max(Byte.MIN_VALUE + 1, Math.min(Byte.MAX_VALUE, value));
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
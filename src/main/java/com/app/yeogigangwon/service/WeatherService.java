@@ -4,24 +4,31 @@ import com.app.yeogigangwon.domain.WeatherForecast;
 import com.app.yeogigangwon.dto.WeatherAlert;
 import com.app.yeogigangwon.dto.WeatherInfo;
 import com.app.yeogigangwon.dto.WeatherSummary;
-import com.app.yeogigangwon.fetch.AlertFetcher;
+import com.app.yeogigangwon.event.ForecastTimelineSavedEvent;
 import com.app.yeogigangwon.fetch.ForecastFetcher;
 import com.app.yeogigangwon.repository.WeatherForecastRepository;
 import com.app.yeogigangwon.util.GridConverter;
 import com.app.yeogigangwon.util.GridConverter.GridCoordinate;
+import com.app.yeogigangwon.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * 날씨 정보 서비스
  * 기상청 API 호출, 데이터 저장, 조회 기능 제공
+ * 격자별 캐시를 앞단에 두어 사용자 요청이 기상청 응답을 기다리지 않도록 함
  */
 @Slf4j
 @Service
@@ -29,11 +36,39 @@ import java.util.Optional;
 public class WeatherService {
 
     private final ForecastFetcher forecastFetcher;
-    private final AlertFetcher alertFetcher;
+    private final WeatherAlertService weatherAlertService;
     private final WeatherForecastRepository weatherForecastRepository;
+    private final WeatherCache weatherCache;
+    private final ThreadPoolTaskExecutor weatherRefreshExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 이 시간이 지나면 요청 시 백그라운드 갱신 예약 (분)
+    @Value("${weather.cache.refresh-after-minutes:10}")
+    private long refreshAfterMinutes;
+
+    // 이 시간이 지나면 응답에 stale 표시 (분)
+    @Value("${weather.cache.stale-after-minutes:15}")
+    private long staleAfterMinutes;
+
+    // 이 시간이 지난 데이터는 캐시에서 제외하고 새로 조회 (분)
+    @Value("${weather.cache.max-age-minutes:180}")
+    private long maxAgeMinutes;
+
+    // DB에서 현재 예보를 찾을 때 현재 정시 전후로 살펴볼 범위 (시간)
+    private static final int DB_LOOKUP_HOURS = 3;
+
+    // 진행 중인 기상청 조회 (격자 + 발표 시각 단위로 합침)
+    private final SingleFlight<FetchKey, FetchResult> forecastFetches = new SingleFlight<>();
+
+    // 기상청 조회 단위 키
+    private record FetchKey(int nx, int ny, LocalDateTime baseDateTime) {}
+
+    // 기상청 조회 결과 (DB 저장 실패는 호출부별로 다르게 처리하므로 예외 대신 담아서 전달)
+    private record FetchResult(WeatherCache.Entry entry, int saved, RuntimeException saveError) {}
 
     /**
      * 실시간 날씨 요약 정보 조회
+     * 격자별 캐시에서 바로 응답하고, 갱신 시점이 지난 데이터는 백그라운드에서 갱신
      * 
      * @param lat 위도
      * @param lon 경도
@@ -43,99 +78,191 @@ public class WeatherService {
        log.info("날씨 요약 조회 - 위도: {}, 경도: {}", lat, lon);
         
         try {
-            // 1. 먼저 DB에서 최신 데이터 조회 (15분 이내)
-            WeatherInfo cachedInfo = getLatestFromDb(lat, lon);
-            
-            // 2. 캐시된 데이터가 있고 15분 이내라면 사용
-            if (cachedInfo != null) {
-                log.info("DB에서 최신 날씨 데이터 사용 (온도: {}도)", cachedInfo.getTemperature());
-                
-                // 기상 특보 조회 (실패 시 빈 목록 반환)
-                List<WeatherAlert> alerts = new ArrayList<>();
-                try {
-                    alerts = alertFetcher.fetchWeatherAlerts("강원도");
-                } catch (Exception e) {
-                    log.warn("기상 특보 조회 실패, 빈 목록으로 처리: {}", e.getMessage());
-                }
-                
-                return new WeatherSummary(cachedInfo, alerts);
-            }
-            
-            // 3. 캐시된 데이터가 없거나 오래되었다면 새로운 API 호출
-            log.info("DB에 최신 데이터가 없어 새로운 API 호출을 시도합니다");
-            WeatherInfo info = forecastFetcher.fetchWeatherForecast(
-                GridConverter.convertToGrid(lat, lon).nx,
-                GridConverter.convertToGrid(lat, lon).ny
-            );
-            
-            // 4. 새로운 데이터를 DB에 저장
-            try {
-                fetchAndSave(lat, lon);
-                log.info("새로운 날씨 데이터를 DB에 저장했습니다");
-            } catch (Exception e) {
-                log.warn("DB 저장 실패, 하지만 API 데이터는 사용: {}", e.getMessage());
-            }
-            
-            // 기상 특보 조회 (실패 시 빈 목록 반환)
-            List<WeatherAlert> alerts = new ArrayList<>();
-            try {
-                alerts = alertFetcher.fetchWeatherAlerts("강원도");
-            } catch (Exception e) {
-                log.warn("기상 특보 조회 실패, 빈 목록으로 처리: {}", e.getMessage());
-            }
-            
-            return new WeatherSummary(info, alerts);
+            GridCoordinate grid = GridConverter.convertToGrid(lat, lon);
+            WeatherCache.Entry entry = getCachedWeather(grid);
+            long ageMinutes = entry.ageMinutes(LocalDateTime.now());
+
+            // 기상 특보는 백그라운드 폴러가 보관 중인 목록 사용 (외부 호출 없음)
+            List<WeatherAlert> alerts = weatherAlertService.getCurrentAlerts();
+
+            return new WeatherSummary(entry.info, alerts, ageMinutes, ageMinutes >= staleAfterMinutes);
         } catch (Exception e) {
             log.error("날씨 요약 조회 실패", e);
             throw new RuntimeException("날씨 요약 조회 실패: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * 격자의 캐시 항목 조회
+     * - 캐시가 비었거나 보관 한도를 넘었으면 DB → 기상청 순으로 채움 (이 경우만 요청 스레드에서 대기)
+     * - 갱신 시점이 지났으면 현재 값을 그대로 반환하고 백그라운드 갱신을 예약
+     * - 기상청 갱신이 실패해도 이전 데이터가 있으면 그대로 반환
+     *
+     * @param grid 격자 좌표
+     * @return 캐시 항목
+     */
+    public WeatherCache.Entry getCachedWeather(GridCoordinate grid) {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherCache.Entry entry = weatherCache.get(grid);
+
+        if (entry == null || entry.ageMinutes(now) >= maxAgeMinutes) {
+            entry = loadFromDb(grid).orElse(entry);
+        }
+
+        if (entry == null || entry.ageMinutes(now) >= maxAgeMinutes) {
+            log.info("격자 {} 캐시 데이터가 없어 기상청을 직접 호출합니다", grid);
+            try {
+                return refresh(grid);
+            } catch (RuntimeException e) {
+                if (entry == null) {
+                    throw e;
+                }
+                log.warn("격자 {} 갱신 실패, {}분 전 데이터를 사용합니다: {}", grid, entry.ageMinutes(now), e.getMessage());
+                return entry;
+            }
+        }
+
+        if (entry.ageMinutes(now) >= refreshAfterMinutes) {
+            refreshAsync(grid);
+        }
+        return entry;
+    }
+
+    /**
+     * 격자 날씨를 기상청에서 받아와 캐시와 DB에 반영
+     * DB 저장이 실패해도 받아온 데이터는 캐시에 남아 그대로 사용됨
+     *
+     * @param grid 격자 좌표
+     * @return 갱신된 캐시 항목
+     */
+    public WeatherCache.Entry refresh(GridCoordinate grid) {
+        FetchResult result = fetchOnce(grid);
+        if (result.saveError() != null) {
+            log.warn("DB 저장 실패, 하지만 API 데이터는 사용: {}", result.saveError().getMessage());
+        }
+        return result.entry();
+    }
+
+    /**
+     * 백그라운드 갱신 예약 (같은 격자는 동시에 하나만)
+     *
+     * @param grid 격자 좌표
+     */
+    public void refreshAsync(GridCoordinate grid) {
+        if (!weatherCache.tryBeginRefresh(grid)) {
+            return;
+        }
+        try {
+            weatherRefreshExecutor.execute(() -> {
+                try {
+                    refresh(grid);
+                } catch (Exception e) {
+                    log.warn("격자 {} 백그라운드 갱신 실패, 기존 데이터 유지: {}", grid, e.getMessage());
+                } finally {
+                    weatherCache.endRefresh(grid);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            weatherCache.endRefresh(grid);
+            log.warn("격자 {} 백그라운드 갱신 작업이 거절되었습니다: {}", grid, e.getMessage());
+        }
+    }
+
+    /**
+     * 보관 한도를 넘긴 캐시 항목 정리
+     */
+    @Scheduled(fixedDelay = 30 * 60 * 1000)
+    public void evictExpiredCache() {
+        int evicted = weatherCache.evictFetchedBefore(LocalDateTime.now().minusMinutes(maxAgeMinutes));
+        if (evicted > 0) {
+            log.info("날씨 캐시 {}건 정리 (남은 격자: {})", evicted, weatherCache.size());
+        }
+    }
+
     /**
      * 기상청 API에서 날씨 데이터를 가져와서 DB에 저장
      * 
      * @param lat 위도
      * @param lon 경도
-     * @return 저장된 날씨 예보 정보
+     * @return 저장된 예보 시간대 수
      */
-    public WeatherForecast fetchAndSave(double lat, double lon) {
+    public int fetchAndSave(double lat, double lon) {
         log.info("날씨 데이터 API 호출 및 저장 - 위도: {}, 경도: {}", lat, lon);
-        
-        try {
-            // 기준 시각 계산 (1시간 전 기준)
-            LocalDateTime now = LocalDateTime.now().minusHours(1);
-            String baseDate = now.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-            String baseTime = getNearestBaseTime(now.getHour());
-
-            // 위도/경도를 격자 좌표로 변환
-            GridCoordinate grid = GridConverter.convertToGrid(lat, lon);
+        return fetchAndSave(GridConverter.convertToGrid(lat, lon));
+    }
 
-            // API에서 단기 예보 데이터 조회
-            WeatherInfo info = forecastFetcher.fetchWeatherForecast(grid.nx, grid.ny);
-
-            // WeatherForecast 도메인 객체 생성 및 저장
-            WeatherForecast weatherForecast = new WeatherForecast();
-            weatherForecast.setNx(String.valueOf(grid.nx));
-            weatherForecast.setNy(String.valueOf(grid.ny));
-            weatherForecast.setBaseDate(baseDate);
-            weatherForecast.setBaseTime(baseTime);
-            weatherForecast.setForecastTime(LocalDateTime.now());
-            
-            // WeatherInfo를 JSON으로 변환하여 저장
-            String weatherData = String.format(
-                "{\"temperature\":\"%s\",\"precipitationProbability\":\"%s\",\"sky\":\"%s\",\"windSpeed\":\"%s\"}",
-                info.getTemperature(), info.getPrecipitationProbability(), info.getSky(), info.getWindSpeed()
-            );
-            weatherForecast.setWeatherData(weatherData);
-            weatherForecast.setCreatedAt(LocalDateTime.now());
-
-            return weatherForecastRepository.save(weatherForecast);
+    /**
+     * 격자 좌표 기준으로 기상청 API 호출 후 캐시 갱신 및 DB 저장
+     *
+     * @param grid 격자 좌표
+     * @return 저장된 예보 시간대 수
+     */
+    public int fetchAndSave(GridCoordinate grid) {
+        try {
+            FetchResult result = fetchOnce(grid);
+            if (result.saveError() != null) {
+                throw result.saveError();
+            }
+            return result.saved();
         } catch (Exception e) {
             log.error("날씨 데이터 API 호출 및 저장 실패", e);
             throw new RuntimeException("날씨 데이터 API 호출 및 저장 실패: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * 기상청 호출 → 캐시 반영 → DB 저장을 (격자, 발표 시각)당 한 번만 수행
+     * 같은 키로 동시에 들어온 호출(요청 스레드, 백그라운드 갱신, 스케줄러)은 진행 중인 결과를 공유
+     */
+    private FetchResult fetchOnce(GridCoordinate grid) {
+        FetchKey key = new FetchKey(grid.nx, grid.ny, ForecastFetcher.resolveBaseDateTime(LocalDateTime.now()));
+        return forecastFetches.execute(key, () -> {
+            List<WeatherForecast> timeline = forecastFetcher.fetchForecastTimeline(grid.nx, grid.ny);
+            WeatherCache.Entry entry = putCurrent(grid, timeline);
+            try {
+                return new FetchResult(entry, saveTimeline(timeline), null);
+            } catch (RuntimeException e) {
+                return new FetchResult(entry, 0, e);
+            }
+        });
+    }
+
+    /**
+     * 예보 시간대 중 현재 시각 예보를 캐시에 반영
+     */
+    private WeatherCache.Entry putCurrent(GridCoordinate grid, List<WeatherForecast> timeline) {
+        WeatherForecast current = ForecastFetcher.selectCurrent(timeline, LocalDateTime.now());
+        if (current == null) {
+            throw new IllegalStateException("필수 날씨 데이터(TMP/POP/SKY/WSD)가 누락되었습니다");
+        }
+        return weatherCache.put(grid, current.toWeatherInfo(), current.getCreatedAt());
+    }
+
+    /**
+     * 응답받은 모든 예보 시간대를 한 번의 배치로 저장하고 저장 이벤트 발행
+     */
+    private int saveTimeline(List<WeatherForecast> timeline) {
+        int saved = weatherForecastRepository.upsertAll(timeline);
+        log.info("예보 {}개 시간대 저장 완료", saved);
+        if (saved > 0) {
+            WeatherForecast first = timeline.get(0);
+            eventPublisher.publishEvent(new ForecastTimelineSavedEvent(
+                    first.getNx(), first.getNy(), first.getBaseDateTime(), saved, LocalDateTime.now()));
+        }
+        return saved;
+    }
+
+    /**
+     * 보관 기간이 지난 예보 시간대 삭제
+     *
+     * @param retentionDays 보관 일수 (예보 시각 기준)
+     * @return 삭제된 행 수
+     */
+    @Transactional
+    public int purgeExpiredForecasts(int retentionDays) {
+        return weatherForecastRepository.deleteByFcstDateTimeBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
     /**
      * DB에서 최신 날씨 데이터 조회
      * 
@@ -149,89 +276,40 @@ public class WeatherService {
         // 위도/경도를 격자 좌표로 변환
         GridCoordinate grid = GridConverter.convertToGrid(lat, lon);
 
-        // 격자 좌표 기준으로 최신 데이터 조회
-        List<WeatherForecast> forecasts = weatherForecastRepository.findLatestByGrid(String.valueOf(grid.nx), String.valueOf(grid.ny));
-        
-        if (forecasts.isEmpty()) {
+        Optional<WeatherCache.Entry> entry = loadFromDb(grid);
+        if (entry.isEmpty()) {
             log.warn("해당 좌표의 날씨 데이터가 없습니다 - nx: {}, ny: {}", grid.nx, grid.ny);
             return null;
         }
 
-        // WeatherForecast를 WeatherInfo로 변환 (JSON 파싱)
-        WeatherForecast forecast = forecasts.get(0);
-        
         // 15분 이내의 데이터인지 확인
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime forecastTime = forecast.getCreatedAt();
-        long minutesDiff = java.time.Duration.between(forecastTime, now).toMinutes();
-        
+        long minutesDiff = entry.get().ageMinutes(LocalDateTime.now());
         if (minutesDiff > 15) {
             log.info("DB 데이터가 {}분 전 데이터로 너무 오래되어 사용하지 않습니다", minutesDiff);
             return null;
         }
         
-        log.info("DB에서 {}분 전 데이터 사용 (온도: {}도)", minutesDiff, forecast.getWeatherData());
-        
-        try {
-            // 간단한 JSON 파싱 (실제로는 Jackson ObjectMapper 사용 권장)
-            String weatherData = forecast.getWeatherData();
-            if (weatherData != null && weatherData.contains("temperature")) {
-                // JSON에서 값 추출 (간단한 방식)
-                String temp = extractValue(weatherData, "temperature");
-                String pop = extractValue(weatherData, "precipitationProbability");
-                String sky = extractValue(weatherData, "sky");
-                String wsd = extractValue(weatherData, "windSpeed");
-                
-                return new WeatherInfo(
-                    Integer.parseInt(temp), 
-                    Integer.parseInt(pop), 
-                    Integer.parseInt(sky), 
-                    Integer.parseInt(wsd)
-                );
-            }
-        } catch (Exception e) {
-            log.warn("날씨 데이터 파싱 실패: {}", forecast.getWeatherData(), e);
-        }
-        
-        return null;
+        log.info("DB에서 {}분 전 데이터 사용 (온도: {}도)", minutesDiff, entry.get().info.getTemperature());
+        return entry.get().info;
     }
 
     /**
-     * JSON 문자열에서 특정 키의 값을 추출하는 헬퍼 메서드
-     * 
-     * @param json JSON 문자열
-     * @param key 추출할 키
-     * @return 추출된 값 (없으면 "0")
+     * 격자의 현재 시각 전후 예보를 DB에서 읽어 캐시 항목으로 만들고, 캐시에도 반영
+     *
+     * @param grid 격자 좌표
+     * @return 캐시 항목 (없으면 empty)
      */
-    private String extractValue(String json, String key) {
-        try {
-            int startIndex = json.indexOf("\"" + key + "\":\"") + key.length() + 4;
-            int endIndex = json.indexOf("\"", startIndex);
-            if (startIndex > key.length() + 3 && endIndex > startIndex) {
-                return json.substring(startIndex, endIndex);
-            }
-        } catch (Exception e) {
-            log.warn("JSON 파싱 실패: key={}, json={}", key, json, e);
-        }
-        return "0";
-    }
+    private Optional<WeatherCache.Entry> loadFromDb(GridCoordinate grid) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime hour = now.truncatedTo(ChronoUnit.HOURS);
+        List<WeatherForecast> rows = weatherForecastRepository
+                .findByNxAndNyAndFcstDateTimeBetweenOrderByFcstDateTimeAscBaseDateTimeDesc(
+                        grid.nx, grid.ny, hour.minusHours(DB_LOOKUP_HOURS), hour.plusHours(DB_LOOKUP_HOURS));
 
-    /**
-     * 현재 시간에 가장 가까운 기상청 예보 기준 시각 반환
-     * 기상청은 3시간마다 예보를 발표 (02, 05, 08, 11, 14, 17, 20, 23시)
-     * 
-     * @param hour 현재 시간 (0-23)
-     * @return 예보 기준 시각 (HHMM 형식)
-     */
-    private String getNearestBaseTime(int hour) {
-        if (hour < 2) return "2300";
-        else if (hour < 5) return "0200";
-        else if (hour < 8) return "0500";
-        else if (hour < 11) return "0800";
-        else if (hour < 14) return "1100";
-        else if (hour < 17) return "1400";
-        else if (hour < 20) return "1700";
-        else if (hour < 23) return "2000";
-        else return "2300";
+        WeatherForecast current = ForecastFetcher.selectCurrent(rows, now);
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(weatherCache.put(grid, current.toWeatherInfo(), current.getCreatedAt()));
     }
 }
@@ -0,0 +1,30 @@
+package com.app.yeogigangwon.util;
+
+import org.springframework.http.ETag;
+
+/**
+ * If-None-Match 헤더 비교 유틸리티 클래스
+ * 헤더를 그대로 문자열 비교하면 목록("a", "b")이나 약한 태그(W/"a")가 일치하지 않으므로 RFC 9110의 약한 비교로 판단
+ */
+public class EtagMatcher {
+
+    /**
+     * If-None-Match 헤더에 현재 ETag가 포함되어 있는지
+     *
+     * @param ifNoneMatch 요청의 If-None-Match 헤더 (없으면 null)
+     * @param etag        현재 ETag (따옴표 포함)
+     * @return 일치하는 태그가 있거나 "*"이면 true
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        for (ETag candidate : ETag.parse(ifNoneMatch)) {
+            if (candidate.isWildcard() || candidate.compare(current, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
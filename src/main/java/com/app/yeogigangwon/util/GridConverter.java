@@ -1,8 +1,14 @@
 package com.app.yeogigangwon.util;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 위도/경도를 기상청 격자 좌표로 변환하는 유틸리티 클래스
  * 기상청 API 호출을 위한 격자 좌표 계산
+ *
+ * 투영 상수는 클래스 로딩 시 한 번만 계산하고,
+ * 강원도 영역은 격자보다 촘촘한 조회 테이블로 배열 접근만으로 변환한다.
  */
 public class GridConverter {
 
@@ -17,6 +23,37 @@ public class GridConverter {
             this.nx = nx;
             this.ny = ny;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof GridCoordinate)) return false;
+            GridCoordinate other = (GridCoordinate) o;
+            return nx == other.nx && ny == other.ny;
+        }
+
+        @Override
+        public int hashCode() {
+            return nx * 31 + ny;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + nx + ", " + ny + ")";
+        }
+    }
+
+    /**
+     * 위도/경도를 담는 내부 클래스 (격자 → 위경도 역변환 결과)
+     */
+    public static class LatLon {
+        public final double lat;  // 위도 (도)
+        public final double lon;  // 경도 (도)
+
+        public LatLon(double lat, double lon) {
+            this.lat = lat;
+            this.lon = lon;
+        }
     }
 
     // 기상청 격자 좌표계 상수
@@ -29,44 +66,147 @@ public class GridConverter {
     private static final double ORIGIN_X = 43;              // 원점 X 격자 좌표
     private static final double ORIGIN_Y = 136;             // 원점 Y 격자 좌표
 
-    /**
-     * 위도/경도를 기상청 격자 좌표로 변환
-     * 
-     * @param lat 위도 (도)
-     * @param lon 경도 (도)
-     * @return 격자 좌표 (nx, ny)
-     */
-    public static GridCoordinate convertToGrid(double lat, double lon) {
-        double DEGRAD = Math.PI / 180.0;
+    // Lambert Conformal Conic 투영 상수 (입력과 무관하므로 미리 계산)
+    private static final double DEGRAD = Math.PI / 180.0;
+    private static final double RADDEG = 180.0 / Math.PI;
+    private static final double RE = EARTH_RADIUS / GRID_SPACING;
+    private static final double OLON = ORIGIN_LON * DEGRAD;
+    private static final double SN;
+    private static final double SF;
+    private static final double RO;
 
-        double re = EARTH_RADIUS / GRID_SPACING;
+    static {
         double slat1 = PROJECTION_LAT1 * DEGRAD;
         double slat2 = PROJECTION_LAT2 * DEGRAD;
-        double olon = ORIGIN_LON * DEGRAD;
         double olat = ORIGIN_LAT * DEGRAD;
 
-        // Lambert Conformal Conic 투영 계산
         double sn = Math.tan(Math.PI * 0.25 + slat2 * 0.5) / Math.tan(Math.PI * 0.25 + slat1 * 0.5);
         sn = Math.log(Math.cos(slat1) / Math.cos(slat2)) / Math.log(sn);
         double sf = Math.tan(Math.PI * 0.25 + slat1 * 0.5);
         sf = Math.pow(sf, sn) * Math.cos(slat1) / sn;
         double ro = Math.tan(Math.PI * 0.25 + olat * 0.5);
-        ro = re * sf / Math.pow(ro, sn);
+        ro = RE * sf / Math.pow(ro, sn);
 
-        // 입력 좌표를 격자 좌표로 변환
+        SN = sn;
+        SF = sf;
+        RO = ro;
+    }
+
+    // 강원도 영역 조회 테이블 범위 (위경도, 도)
+    public static final double GANGWON_LAT_MIN = 37.00;
+    public static final double GANGWON_LAT_MAX = 38.65;
+    public static final double GANGWON_LON_MIN = 127.05;
+    public static final double GANGWON_LON_MAX = 129.40;
+
+    // 테이블 해상도 (0.01도 ≒ 1km, 5km 격자보다 촘촘함)
+    private static final double TABLE_STEP = 0.01;
+    private static final int TABLE_ROWS = (int) Math.ceil((GANGWON_LAT_MAX - GANGWON_LAT_MIN) / TABLE_STEP);
+    private static final int TABLE_COLS = (int) Math.ceil((GANGWON_LON_MAX - GANGWON_LON_MIN) / TABLE_STEP);
+
+    // 테이블 칸 → 격자 좌표 (칸 안에 격자 경계가 지나가면 null → 정밀 계산으로 처리)
+    private static final GridCoordinate[] TABLE = buildTable();
+
+    /**
+     * 위도/경도를 기상청 격자 좌표로 변환
+     * 강원도 영역이면 조회 테이블을, 그 외에는 투영 계산을 사용
+     *
+     * @param lat 위도 (도)
+     * @param lon 경도 (도)
+     * @return 격자 좌표 (nx, ny)
+     */
+    public static GridCoordinate convertToGrid(double lat, double lon) {
+        if (lat >= GANGWON_LAT_MIN && lat < GANGWON_LAT_MAX
+                && lon >= GANGWON_LON_MIN && lon < GANGWON_LON_MAX) {
+            int row = (int) ((lat - GANGWON_LAT_MIN) / TABLE_STEP);
+            int col = (int) ((lon - GANGWON_LON_MIN) / TABLE_STEP);
+            if (row < TABLE_ROWS && col < TABLE_COLS) {
+                GridCoordinate cached = TABLE[row * TABLE_COLS + col];
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+        return computeGrid(lat, lon);
+    }
+
+    /**
+     * 기상청 격자 좌표를 격자 중심의 위도/경도로 역변환
+     *
+     * @param nx 격자 X 좌표
+     * @param ny 격자 Y 좌표
+     * @return 격자 중심 위경도
+     */
+    public static LatLon convertToLatLon(int nx, int ny) {
+        double xn = nx - ORIGIN_X;
+        double yn = RO - ny + ORIGIN_Y;
+        double ra = Math.sqrt(xn * xn + yn * yn);
+        if (SN < 0.0) ra = -ra;
+
+        double alat = Math.pow(RE * SF / ra, 1.0 / SN);
+        alat = 2.0 * Math.atan(alat) - Math.PI * 0.5;
+
+        double theta;
+        if (Math.abs(xn) <= 0.0) {
+            theta = 0.0;
+        } else if (Math.abs(yn) <= 0.0) {
+            theta = Math.PI * 0.5;
+            if (xn < 0.0) theta = -theta;
+        } else {
+            theta = Math.atan2(xn, yn);
+        }
+        double alon = theta / SN + OLON;
+
+        return new LatLon(alat * RADDEG, alon * RADDEG);
+    }
+
+    /**
+     * 투영 공식으로 격자 좌표 계산 (조회 테이블 범위 밖 또는 경계 칸)
+     */
+    private static GridCoordinate computeGrid(double lat, double lon) {
         double ra = Math.tan(Math.PI * 0.25 + lat * DEGRAD * 0.5);
-        ra = re * sf / Math.pow(ra, sn);
-        double theta = lon * DEGRAD - olon;
-        
+        ra = RE * SF / Math.pow(ra, SN);
+        double theta = lon * DEGRAD - OLON;
+
         // 경도 범위 조정 (-π ~ π)
         if (theta > Math.PI) theta -= 2.0 * Math.PI;
         if (theta < -Math.PI) theta += 2.0 * Math.PI;
-        theta *= sn;
+        theta *= SN;
 
         // 최종 격자 좌표 계산
         int nx = (int) Math.floor(ra * Math.sin(theta) + ORIGIN_X + 0.5);
-        int ny = (int) Math.floor(ro - ra * Math.cos(theta) + ORIGIN_Y + 0.5);
+        int ny = (int) Math.floor(RO - ra * Math.cos(theta) + ORIGIN_Y + 0.5);
 
         return new GridCoordinate(nx, ny);
     }
+
+    /**
+     * 강원도 영역 조회 테이블 생성
+     * 칸의 네 꼭짓점이 모두 같은 격자에 속할 때만 값을 채우고,
+     * 같은 격자는 하나의 인스턴스를 공유한다.
+     */
+    private static GridCoordinate[] buildTable() {
+        // 꼭짓점별 격자 좌표 (행/열 경계 포함)
+        GridCoordinate[] corners = new GridCoordinate[(TABLE_ROWS + 1) * (TABLE_COLS + 1)];
+        Map<GridCoordinate, GridCoordinate> interned = new HashMap<>();
+        for (int r = 0; r <= TABLE_ROWS; r++) {
+            for (int c = 0; c <= TABLE_COLS; c++) {
+                GridCoordinate g = computeGrid(GANGWON_LAT_MIN + r * TABLE_STEP, GANGWON_LON_MIN + c * TABLE_STEP);
+                corners[r * (TABLE_COLS + 1) + c] = interned.computeIfAbsent(g, k -> k);
+            }
+        }
+
+        GridCoordinate[] table = new GridCoordinate[TABLE_ROWS * TABLE_COLS];
+        for (int r = 0; r < TABLE_ROWS; r++) {
+            for (int c = 0; c < TABLE_COLS; c++) {
+                GridCoordinate sw = corners[r * (TABLE_COLS + 1) + c];
+                GridCoordinate se = corners[r * (TABLE_COLS + 1) + c + 1];
+                GridCoordinate nw = corners[(r + 1) * (TABLE_COLS + 1) + c];
+                GridCoordinate ne = corners[(r + 1) * (TABLE_COLS + 1) + c + 1];
+                if (sw == se && sw == nw && sw == ne) {
+                    table[r * TABLE_COLS + c] = sw;
+                }
+            }
+        }
+        return table;
+    }
 }
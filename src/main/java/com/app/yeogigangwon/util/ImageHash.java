@@ -0,0 +1,70 @@
+package com.app.yeogigangwon.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * 이미지 지각 해시(dHash) 계산 유틸리티 클래스
+ * 이미지를 9x8 흑백으로 줄인 뒤 가로로 이웃한 칸의 밝기 차이를 64비트로 기록
+ * JPEG 재인코딩/노이즈 수준의 차이는 해밍 거리가 작게 나오므로 거의 같은 프레임 판별에 사용
+ */
+public class ImageHash {
+
+    private static final int HASH_WIDTH = 9;   // 가로 비교를 위해 한 칸 더 큼
+    private static final int HASH_HEIGHT = 8;
+
+    /**
+     * 이미지의 dHash 계산
+     *
+     * @param image 원본 이미지
+     * @return 64비트 해시
+     */
+    public static long dHash(BufferedImage image) {
+        double[] cells = downscaleGray(image);
+
+        long hash = 0L;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                hash <<= 1;
+                if (cells[y * HASH_WIDTH + x] > cells[y * HASH_WIDTH + x + 1]) {
+                    hash |= 1L;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 두 해시의 해밍 거리 (다른 비트 수, 0 ~ 64)
+     */
+    public static int hammingDistance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * 9x8 칸으로 나눠 칸별 평균 밝기 계산 (영역 평균이라 큰 이미지에서도 앨리어싱이 적음)
+     */
+    private static double[] downscaleGray(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] sums = new double[HASH_WIDTH * HASH_HEIGHT];
+        int[] counts = new int[HASH_WIDTH * HASH_HEIGHT];
+        int[] row = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cy = Math.min(HASH_HEIGHT - 1, y * HASH_HEIGHT / height);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int r = (rgb >> 16) & 0xFF, g = (rgb >> 8) & 0xFF, b = rgb & 0xFF;
+                int cell = cy * HASH_WIDTH + Math.min(HASH_WIDTH - 1, x * HASH_WIDTH / width);
+                // ITU-R BT.601 휘도
+                sums[cell] += 0.299 * r + 0.587 * g + 0.114 * b;
+                counts[cell]++;
+            }
+        }
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = counts[i] == 0 ? 0 : sums[i] / counts[i];
+        }
+        return sums;
+    }
+}
@@ -0,0 +1,39 @@
+package com.app.yeogigangwon.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * JPEG 인코딩 유틸리티 클래스
+ * ImageIO.write 기본값(품질 0.75 고정) 대신 품질을 지정해 인코딩
+ */
+public class JpegEncoder {
+
+    /**
+     * 이미지를 지정한 품질의 JPEG 바이트로 인코딩
+     *
+     * @param image   원본 이미지 (알파 채널이 없는 RGB)
+     * @param quality 압축 품질 (0~1)
+     * @return JPEG 바이트
+     */
+    public static byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,54 @@
+package com.app.yeogigangwon.util;
+
+import java.util.Arrays;
+
+/**
+ * 최근 N건의 응답 시간을 보관하고 백분위를 계산하는 유틸리티 클래스
+ * 고정 크기 링 버퍼라 오래된 기록은 자동으로 밀려남
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    /**
+     * @param capacity 보관할 최근 기록 수
+     */
+    public LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    /** 응답 시간 기록 (밀리초) */
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    /** 현재 보관 중인 기록 수 */
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * 백분위 응답 시간 계산
+     *
+     * @param percentile 0 ~ 100
+     * @return 백분위 값 (밀리초, 기록이 없으면 -1)
+     */
+    public long percentile(double percentile) {
+        long[] copy;
+        synchronized (this) {
+            if (count == 0) {
+                return -1;
+            }
+            copy = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile / 100.0 * copy.length) - 1;
+        return copy[Math.max(0, Math.min(copy.length - 1, index))];
+    }
+}
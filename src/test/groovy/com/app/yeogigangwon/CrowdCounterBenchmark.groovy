@@ -0,0 +1,157 @@
+package com.app.yeogigangwon
+
+import com.app.yeogigangwon.service.CrowdCounter
+import com.app.yeogigangwon.service.OnnxCrowdCounter
+import com.app.yeogigangwon.service.PythonApiCrowdCounter
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * 추론 백엔드 벤치마크 (python-api HTTP vs 인프로세스 ONNX)
+ * 같은 프레임 묶음을 두 백엔드에 흘려 프레임당 지연(p50/p95/평균)과 처리량(frames/s), 사람 수 일치 여부를 출력
+ *
+ * 기본 빌드에서는 건너뛰고, 프레임 디렉터리를 지정했을 때만 실행:
+ *   gradle test --tests '*CrowdCounterBenchmark' \
+ *     -Dcrowd.benchmark.frames=/path/to/jpegs \
+ *     -Dcrowd.benchmark.python-url=http://localhost:5000 \
+ *     -Dcrowd.benchmark.onnx-model=./models/best_m.onnx
+ * 선택: crowd.benchmark.rounds(3), crowd.benchmark.warmup(3), crowd.benchmark.concurrency(4), crowd.benchmark.onnx-threads(2)
+ */
+@EnabledIfSystemProperty(named = 'crowd.benchmark.frames', matches = '.+')
+class CrowdCounterBenchmark {
+
+	@Test
+	void compareBackends() {
+		Map<String, byte[]> frames = loadFrames(Path.of(System.getProperty('crowd.benchmark.frames')))
+		assert !frames.isEmpty(): 'no .jpg frames found'
+		int rounds = Integer.getInteger('crowd.benchmark.rounds', 3)
+		int warmup = Integer.getInteger('crowd.benchmark.warmup', 3)
+		int concurrency = Integer.getInteger('crowd.benchmark.concurrency', 4)
+
+		Map<String, CrowdCounter> counters = [:]
+		String pythonUrl = System.getProperty('crowd.benchmark.python-url')
+		if (pythonUrl) {
+			counters.python = new PythonApiCrowdCounter(pythonUrl, 3000, 60000, 120000)
+		}
+		String onnxModel = System.getProperty('crowd.benchmark.onnx-model')
+		if (onnxModel) {
+			counters.onnx = new OnnxCrowdCounter(onnxModel, Integer.getInteger('crowd.benchmark.onnx-threads', 2), 0.25f, 0.7f)
+		}
+		assert !counters.isEmpty(): 'set crowd.benchmark.python-url and/or crowd.benchmark.onnx-model'
+
+		println "frames=${frames.size()} rounds=${rounds} warmup=${warmup} concurrency=${concurrency}"
+		println String.format('%-8s %-12s %8s %8s %8s %10s', 'backend', 'mode', 'p50(ms)', 'p95(ms)', 'avg(ms)', 'frames/s')
+
+		Map<String, Map<String, Integer>> countsByBackend = [:]
+		counters.each { name, counter ->
+			// 워밍업 (JIT, 세션 초기화, 커넥션 풀)
+			frames.entrySet().take(warmup).each { counter.count(it.key, it.value) }
+
+			countsByBackend[name] = [:]
+			report(name, 'sequential', sequential(counter, frames, rounds, countsByBackend[name]))
+			report(name, "parallel-${concurrency}", parallel(counter, frames, rounds, concurrency))
+			if (counter.prefersBatch()) {
+				report(name, 'batch', batched(counter, frames, rounds))
+			}
+			if (counter instanceof OnnxCrowdCounter) {
+				counter.close()
+			}
+		}
+
+		if (countsByBackend.size() == 2) {
+			Map<String, Integer> a = countsByBackend.python, b = countsByBackend.onnx
+			int same = frames.keySet().count { a[it] == b[it] }
+			int maxDiff = frames.keySet().collect { Math.abs((a[it] ?: 0) - (b[it] ?: 0)) }.max()
+			println "count agreement: ${same}/${frames.size()} identical, max difference ${maxDiff}"
+		}
+	}
+
+	// 한 장씩 순서대로 (프레임당 지연이 그대로 보이는 경우)
+	private static Result sequential(CrowdCounter counter, Map<String, byte[]> frames, int rounds, Map<String, Integer> counts) {
+		List<Long> latencies = []
+		long started = System.nanoTime()
+		rounds.times {
+			frames.each { id, jpeg ->
+				long t = System.nanoTime()
+				counts[id] = counter.count(id, jpeg)
+				latencies << System.nanoTime() - t
+			}
+		}
+		return new Result(latencies, System.nanoTime() - started)
+	}
+
+	// 고정 스레드 풀에서 동시에 (파이프라인 추론 풀과 같은 형태)
+	private static Result parallel(CrowdCounter counter, Map<String, byte[]> frames, int rounds, int concurrency) {
+		def pool = Executors.newFixedThreadPool(concurrency)
+		try {
+			List<Callable<Long>> tasks = []
+			rounds.times {
+				frames.each { id, jpeg ->
+					tasks << ({ long t = System.nanoTime(); counter.count(id, jpeg); System.nanoTime() - t } as Callable<Long>)
+				}
+			}
+			long started = System.nanoTime()
+			List<Long> latencies = pool.invokeAll(tasks)*.get()
+			return new Result(latencies, System.nanoTime() - started)
+		} finally {
+			pool.shutdownNow()
+			pool.awaitTermination(10, TimeUnit.SECONDS)
+		}
+	}
+
+	// 묶음 요청 (지연은 요청 한 번 시간을 프레임 수로 나눈 값)
+	private static Result batched(CrowdCounter counter, Map<String, byte[]> frames, int rounds) {
+		List<Long> latencies = []
+		long started = System.nanoTime()
+		rounds.times {
+			long t = System.nanoTime()
+			counter.countBatch(frames, 120_000L)
+			long perFrame = (System.nanoTime() - t).intdiv(frames.size())
+			frames.size().times { latencies << perFrame }
+		}
+		return new Result(latencies, System.nanoTime() - started)
+	}
+
+	private static void report(String backend, String mode, Result r) {
+		List<Long> sorted = r.latencies.sort(false)
+		double fps = r.latencies.size() / (r.wallNanos / 1e9d)
+		println String.format('%-8s %-12s %8.1f %8.1f %8.1f %10.2f', backend, mode,
+				millis(percentile(sorted, 50)), millis(percentile(sorted, 95)),
+				millis((long) (sorted.sum() / sorted.size())), fps)
+	}
+
+	private static long percentile(List<Long> sorted, double p) {
+		int idx = (int) Math.ceil(p / 100.0 * sorted.size()) - 1
+		return sorted[Math.max(0, Math.min(idx, sorted.size() - 1))]
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6d
+	}
+
+	private static Map<String, byte[]> loadFrames(Path dir) {
+		Map<String, byte[]> frames = new LinkedHashMap<>()
+		Files.list(dir).withCloseable { paths ->
+			paths.filter { it.fileName.toString().toLowerCase() ==~ /.*\.jpe?g/ }
+					.sorted()
+					.each { frames[it.fileName.toString()] = Files.readAllBytes(it) }
+		}
+		return frames
+	}
+
+	private static class Result {
+		final List<Long> latencies
+		final long wallNanos
+
+		Result(List<Long> latencies, long wallNanos) {
+			this.latencies = latencies
+			this.wallNanos = wallNanos
+		}
+	}
+}
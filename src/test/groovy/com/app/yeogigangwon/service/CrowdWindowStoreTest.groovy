@@ -0,0 +1,118 @@
+package com.app.yeogigangwon.service
+
+import org.junit.jupiter.api.Test
+
+import java.time.LocalDateTime
+
+/**
+ * CrowdWindowStore 윈도우 검증
+ * 정렬 배열 삽입/삭제와 퍼센타일 인덱스가 기존 percentileInt(정렬 후 인덱스)와 같은 결과를 내는지,
+ * 만료/순서가 어긋난 기록/같은 시각 기록을 문서대로 처리하는지 확인
+ */
+class CrowdWindowStoreTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2025, 7, 1, 9, 0)
+
+	// 기존 CongestionService.percentileInt와 같은 규칙 (정렬 후 ceil(p * n) - 1)
+	private static int percentileInt(List<Integer> xs, double p) {
+		if (xs.isEmpty()) return 0
+		List<Integer> sorted = new ArrayList<>(xs).sort()
+		int idx = (int) Math.ceil(p / 100.0 * sorted.size()) - 1
+		return sorted[Math.max(0, Math.min(idx, sorted.size() - 1))]
+	}
+
+	@Test
+	void percentilesMatchSortThenIndex() {
+		Random random = new Random(42)
+		for (int n : [1, 2, 3, 9, 10, 11, 128, 129, 500]) {
+			CrowdWindowStore store = new CrowdWindowStore(null)
+			List<Integer> values = []
+			n.times { i ->
+				int v = random.nextInt(60)
+				values << v
+				store.record('b', T0.plusMinutes(i), v)
+			}
+
+			CrowdWindowStore.Snapshot s = store.snapshot('b', T0.plusMinutes(n))
+			assert s.sampleCount() == n
+			assert s.p50() == percentileInt(values, 50)
+			assert s.p90() == percentileInt(values, 90)
+			assert s.latestCount() == values.last()
+			assert s.latestAt() == T0.plusMinutes(n - 1)
+		}
+	}
+
+	@Test
+	void expiryRemovesTheExpiredValuesIncludingDuplicates() {
+		CrowdWindowStore store = new CrowdWindowStore(null)
+		[9, 9, 2, 9].eachWithIndex { v, i -> store.record('b', T0.plusHours(i), v) }
+
+		// 앞의 9, 9가 만료 → [2, 9] (2를 지우면 p50이 9가 됨)
+		CrowdWindowStore.Snapshot s = store.snapshot('b', T0.plusHours(2).plus(CrowdWindowStore.WINDOW))
+		assert s.sampleCount() == 2
+		assert s.p50() == 2
+		assert s.p90() == 9
+
+		// 정확히 24시간 전 기록은 남음, 그보다 오래되면 제거
+		assert store.snapshot('b', T0.plusHours(3).plus(CrowdWindowStore.WINDOW)).sampleCount() == 1
+		assert store.snapshot('b', T0.plusHours(3).plus(CrowdWindowStore.WINDOW).plusSeconds(1)) == CrowdWindowStore.Snapshot.EMPTY
+	}
+
+	@Test
+	void randomExpiryMatchesReference() {
+		Random random = new Random(7)
+		CrowdWindowStore store = new CrowdWindowStore(null)
+		List<List> reference = []  // [시각, 값]
+		LocalDateTime now = T0
+		300.times {
+			now = now.plusMinutes(random.nextInt(20) + 1)
+			int v = random.nextInt(5)  // 중복 값이 많도록
+			store.record('b', now, v)
+			reference << [now, v]
+
+			if (random.nextInt(10) == 0) {
+				LocalDateTime threshold = now.minus(CrowdWindowStore.WINDOW)
+				reference.removeIf { (it[0] as LocalDateTime).isBefore(threshold) }
+				List<Integer> values = reference.collect { it[1] as Integer }
+				CrowdWindowStore.Snapshot s = store.snapshot('b', now)
+				assert s.sampleCount() == values.size()
+				assert s.p50() == percentileInt(values, 50)
+				assert s.p90() == percentileInt(values, 90)
+			}
+		}
+	}
+
+	@Test
+	void outOfOrderRecordKeepsLatestAndExpiresByTimestamp() {
+		CrowdWindowStore store = new CrowdWindowStore(null)
+		store.record('b', T0.plusHours(2), 30)
+		store.record('b', T0, 10)            // 늦게 도착한 과거 기록
+		store.record('b', T0.plusHours(1), 20)
+
+		CrowdWindowStore.Snapshot s = store.snapshot('b', T0.plusHours(2))
+		assert s.sampleCount() == 3
+		assert s.latestCount() == 30
+		assert s.latestAt() == T0.plusHours(2)
+		assert s.p50() == 20
+
+		// 가장 오래된 시각(T0)의 기록이 먼저 만료
+		s = store.snapshot('b', T0.plusSeconds(1).plus(CrowdWindowStore.WINDOW))
+		assert s.sampleCount() == 2
+		assert s.p50() == 20
+		assert s.p90() == 30
+	}
+
+	@Test
+	void duplicateTimestampIsIgnored() {
+		CrowdWindowStore store = new CrowdWindowStore(null)
+		store.record('b', T0, 10)
+		store.record('b', T0.plusHours(1), 20)
+		store.record('b', T0.plusHours(1), 99)  // 마지막 기록과 같은 시각
+		store.record('b', T0, 77)               // 순서가 어긋난 같은 시각
+
+		CrowdWindowStore.Snapshot s = store.snapshot('b', T0.plusHours(1))
+		assert s.sampleCount() == 2
+		assert s.latestCount() == 20
+		assert s.p90() == 20
+	}
+}